@@ -299,6 +299,16 @@ public class CassandraClient {
         return getCluster().getMetadata().getAllHosts();
     }
 
+    /**
+     * Get protocol version that was negotiated with cluster, values of statements must be serialized by this version
+     *
+     * @return Protocol version
+     */
+    @NotNull
+    public ProtocolVersion getProtocolVersion() {
+        return getCluster().getConfiguration().getProtocolOptions().getProtocolVersionEnum();
+    }
+
     @NotNull
     protected SocketOptions getSocketOptions() {
         SocketOptions socketOptions = new SocketOptions();
@@ -0,0 +1,218 @@
+package com.fnklabs.draenei.orm;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cluster.ClusterGroup;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Answer lookups of keys that definitely don't exist without loading them from persistence storage
+ * <p>
+ * Keys are identified by primary key hash. Filter consist of negative cache of keys that were not found (bounded by size and expire after write) and
+ * optional Bloom filter that is built from full table scan. Saved keys are removed from negative cache and added to Bloom filter on all nodes by messages.
+ * <p>
+ * Key that was read concurrently with its save isn't marked as absent: save generation of key is captured before read and key is marked only if it wasn't
+ * saved since then. Generations are striped by key hash, so save of other key with the same stripe can skip marking as well.
+ */
+class AbsentKeyFilter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbsentKeyFilter.class);
+    /**
+     * Number of save generation stripes, must be power of two
+     */
+    private static final int SAVE_GENERATION_STRIPES = 4096;
+
+    /**
+     * Hashes of keys that were not found
+     */
+    @NotNull
+    private final Cache<Long, Boolean> negativeCache;
+
+    /**
+     * Save generations of keys by stripe, generation is incremented before saved key is removed from negative cache
+     */
+    @NotNull
+    private final AtomicLongArray saveGenerations = new AtomicLongArray(SAVE_GENERATION_STRIPES);
+
+    @NotNull
+    private final Ignite ignite;
+
+    /**
+     * Saved keys messages topic
+     */
+    @NotNull
+    private final String topic;
+
+    /**
+     * Bloom filter of existing keys or null if it's not built yet, access must be synchronized on filter
+     */
+    @Nullable
+    private volatile BloomFilter<Long> bloomFilter;
+
+    /**
+     * Bloom filter that is being built, saved keys are added to it as well
+     */
+    @Nullable
+    private volatile BloomFilter<Long> buildingBloomFilter;
+
+    /**
+     * @param ignite            Ignite instance
+     * @param cacheName         Ignite cache name
+     * @param negativeCacheSize Max number of keys in negative cache
+     * @param expireAfterWrite  Negative cache entry expiration time
+     * @param expireTimeUnit    Negative cache entry expiration time unit
+     */
+    AbsentKeyFilter(@NotNull Ignite ignite, @NotNull String cacheName, long negativeCacheSize, long expireAfterWrite, @NotNull TimeUnit expireTimeUnit) {
+        this.ignite = ignite;
+        this.topic = String.format("draenei.absent_keys.%s", cacheName);
+        this.negativeCache = CacheBuilder.newBuilder()
+                                         .maximumSize(negativeCacheSize)
+                                         .expireAfterWrite(expireAfterWrite, expireTimeUnit)
+                                         .build();
+
+        ignite.message().localListen(topic, (UUID nodeId, Long keyHash) -> {
+            onSaveLocal(keyHash);
+
+            return true;
+        });
+    }
+
+    /**
+     * Check if key definitely doesn't exist
+     *
+     * @param keyHash Primary key hash
+     *
+     * @return True if key doesn't exist, False if key may exist
+     */
+    boolean isAbsent(long keyHash) {
+        if (negativeCache.getIfPresent(keyHash) != null) {
+            return true;
+        }
+
+        BloomFilter<Long> filter = bloomFilter;
+
+        if (filter == null) {
+            return false;
+        }
+
+        synchronized (filter) {
+            return !filter.mightContain(keyHash);
+        }
+    }
+
+    /**
+     * Get save generation of key, it must be captured before key is read from persistence storage
+     *
+     * @param keyHash Primary key hash
+     *
+     * @return Save generation
+     */
+    long getSaveGeneration(long keyHash) {
+        return saveGenerations.get(getSaveGenerationStripe(keyHash));
+    }
+
+    /**
+     * Remember that key was not found if it wasn't saved since read
+     *
+     * @param keyHash        Primary key hash
+     * @param saveGeneration Save generation of key that was captured before read by {@link #getSaveGeneration(long)}
+     */
+    void markAbsent(long keyHash, long saveGeneration) {
+        negativeCache.put(keyHash, Boolean.TRUE);
+
+        // save that is concurrent with put either changed generation before check or invalidates key after put
+        if (getSaveGeneration(keyHash) != saveGeneration) {
+            negativeCache.invalidate(keyHash);
+        }
+    }
+
+    /**
+     * Remove saved key from negative cache and add it to Bloom filter on all nodes
+     *
+     * @param keyHash Primary key hash
+     */
+    void onSave(long keyHash) {
+        onSaveLocal(keyHash);
+
+        ClusterGroup remoteNodes = ignite.cluster().forRemotes();
+
+        if (remoteNodes.nodes().isEmpty()) {
+            return;
+        }
+
+        try {
+            ignite.message(remoteNodes).send(topic, keyHash);
+        } catch (IgniteException e) {
+            LOGGER.warn("Can't send saved key message", e);
+        }
+    }
+
+    /**
+     * Build Bloom filter of existing keys on current node, until new filter is built previous one is used
+     *
+     * @param expectedInsertions       Expected number of keys
+     * @param falsePositiveProbability False positive probability
+     * @param scanner                  Function that pass hashes of all existing keys to consumer and return number of keys
+     *
+     * @return Number of scanned keys
+     */
+    int buildBloomFilter(int expectedInsertions, double falsePositiveProbability, @NotNull ToIntFunction<LongConsumer> scanner) {
+        BloomFilter<Long> filter = BloomFilter.create(Funnels.longFunnel(), expectedInsertions, falsePositiveProbability);
+
+        buildingBloomFilter = filter;
+
+        int scannedKeys = scanner.applyAsInt(keyHash -> put(filter, keyHash));
+
+        bloomFilter = filter;
+        buildingBloomFilter = null;
+
+        LOGGER.debug("Complete to build bloom filter for {} keys", scannedKeys);
+
+        return scannedKeys;
+    }
+
+    /**
+     * Remove saved key from negative cache and add it to Bloom filter on current node only
+     *
+     * @param keyHash Primary key hash
+     */
+    void onSaveLocal(long keyHash) {
+        saveGenerations.incrementAndGet(getSaveGenerationStripe(keyHash));
+
+        negativeCache.invalidate(keyHash);
+
+        BloomFilter<Long> filter = bloomFilter;
+
+        if (filter != null) {
+            put(filter, keyHash);
+        }
+
+        BloomFilter<Long> buildingFilter = buildingBloomFilter;
+
+        if (buildingFilter != null) {
+            put(buildingFilter, keyHash);
+        }
+    }
+
+    private static int getSaveGenerationStripe(long keyHash) {
+        return Long.hashCode(keyHash) & (SAVE_GENERATION_STRIPES - 1);
+    }
+
+    private static void put(@NotNull BloomFilter<Long> filter, long keyHash) {
+        synchronized (filter) {
+            filter.put(keyHash);
+        }
+    }
+}
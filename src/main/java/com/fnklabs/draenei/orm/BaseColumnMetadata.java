@@ -4,6 +4,7 @@ package com.fnklabs.draenei.orm;
 import com.datastax.driver.core.DataType;
 import com.datastax.driver.core.ProtocolVersion;
 import com.fnklabs.draenei.orm.exception.MetadataException;
+import com.fnklabs.draenei.orm.mapping.Accessors;
 import com.google.common.base.MoreObjects;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -11,9 +12,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * Column metadata
@@ -32,16 +33,21 @@ class BaseColumnMetadata implements ColumnMetadata {
     private final String name;
 
     /**
-     * Field read method
+     * Property name
+     */
+    private final String propertyName;
+
+    /**
+     * Generated field read accessor
      */
     @NotNull
-    private final Method readMethod;
+    private final Function<Object, Object> readAccessor;
 
     /**
-     * Field write method
+     * Generated field write accessor
      */
     @NotNull
-    private final Method writeMethod;
+    private final BiConsumer<Object, Object> writeAccessor;
 
     /**
      * DataStax column metadata to serialize and deserialize data
@@ -73,8 +79,9 @@ class BaseColumnMetadata implements ColumnMetadata {
             throw new MetadataException(String.format("Column metadata[%s] is null", name));
         }
 
-        this.readMethod = propertyDescriptor.getReadMethod();
-        this.writeMethod = propertyDescriptor.getWriteMethod();
+        this.propertyName = propertyDescriptor.getName();
+        this.readAccessor = Accessors.getter(propertyDescriptor.getReadMethod());
+        this.writeAccessor = Accessors.setter(propertyDescriptor.getWriteMethod());
         this.columnDataType = columnDataType;
         this.type = type;
         this.name = name;
@@ -89,6 +96,15 @@ class BaseColumnMetadata implements ColumnMetadata {
         return name;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getPropertyName() {
+        return propertyName;
+    }
+
     @NotNull
     @Override
     public Class getFieldType() {
@@ -104,12 +120,10 @@ class BaseColumnMetadata implements ColumnMetadata {
             return;
         }
 
-        Method writeMethod = getWriteMethod();
-
         try {
-            writeMethod.invoke(entity, value);
-        } catch (InvocationTargetException | IllegalAccessException | IllegalArgumentException e) {
-            LOGGER.warn(String.format("Can't invoke write method [%s.%s]", writeMethod.getDeclaringClass(), writeMethod.getName()), e);
+            writeAccessor.accept(entity, value);
+        } catch (RuntimeException e) {
+            LOGGER.warn(String.format("Can't invoke write method [%s.%s]", entity.getClass(), propertyName), e);
         }
     }
 
@@ -119,12 +133,10 @@ class BaseColumnMetadata implements ColumnMetadata {
     @Nullable
     @Override
     public <FieldType> FieldType readValue(@NotNull Object object) {
-        Method readMethod = getReadMethod();
-
         try {
-            return (FieldType) readMethod.invoke(object);
-        } catch (IllegalAccessException | InvocationTargetException | ClassCastException e) {
-            LOGGER.warn("Can't invoke read method: " + readMethod.getName(), e);
+            return (FieldType) readAccessor.apply(object);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Can't invoke read method: " + propertyName, e);
         }
 
         return null;
@@ -162,16 +174,6 @@ class BaseColumnMetadata implements ColumnMetadata {
         return (T) deserializedObject;
     }
 
-    @NotNull
-    private Method getReadMethod() {
-        return readMethod;
-    }
-
-    @NotNull
-    private Method getWriteMethod() {
-        return writeMethod;
-    }
-
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -0,0 +1,158 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Statement;
+import com.fnklabs.draenei.CassandraClient;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Execute set of statements asynchronously but keep no more than specified number of statements in flight, next statement is sent only when one of
+ * previous statements is completed. First failed statement fail whole execution and stop sending of remaining statements.
+ *
+ * @param <T> Result type of single statement
+ */
+class BoundedStatementExecutor<T> {
+    @NotNull
+    private final CassandraClient cassandraClient;
+
+    @NotNull
+    private final String keyspace;
+
+    @NotNull
+    private final List<? extends Statement> statements;
+
+    /**
+     * Map ResultSet of each statement to result
+     */
+    @NotNull
+    private final Function<ResultSet, T> resultMapper;
+
+    /**
+     * Executor on which statement results will be processed
+     */
+    @NotNull
+    private final Executor executor;
+
+    private final AtomicInteger nextStatement = new AtomicInteger();
+
+    private final AtomicInteger completedStatements = new AtomicInteger();
+
+    private final AtomicReferenceArray<T> results;
+
+    private final SettableFuture<List<T>> resultFuture = SettableFuture.create();
+
+    private BoundedStatementExecutor(@NotNull CassandraClient cassandraClient,
+                                     @NotNull String keyspace,
+                                     @NotNull List<? extends Statement> statements,
+                                     @NotNull Function<ResultSet, T> resultMapper,
+                                     @NotNull Executor executor) {
+        this.cassandraClient = cassandraClient;
+        this.keyspace = keyspace;
+        this.statements = statements;
+        this.resultMapper = resultMapper;
+        this.executor = executor;
+        this.results = new AtomicReferenceArray<>(statements.size());
+    }
+
+    /**
+     * Execute statements
+     *
+     * @param cassandraClient Cassandra client
+     * @param keyspace        Keyspace
+     * @param statements      Statements that must be executed
+     * @param maxInFlight     Max number of concurrently executed statements
+     * @param resultMapper    Function that map ResultSet of statement to result
+     * @param executor        Executor on which ResultSet will be mapped
+     * @param <T>             Result type of single statement
+     *
+     * @return Future with results in statements order
+     */
+    static <T> ListenableFuture<List<T>> execute(@NotNull CassandraClient cassandraClient,
+                                                 @NotNull String keyspace,
+                                                 @NotNull List<? extends Statement> statements,
+                                                 int maxInFlight,
+                                                 @NotNull Function<ResultSet, T> resultMapper,
+                                                 @NotNull Executor executor) {
+        if (statements.isEmpty()) {
+            return Futures.immediateFuture(Collections.emptyList());
+        }
+
+        BoundedStatementExecutor<T> statementExecutor = new BoundedStatementExecutor<>(cassandraClient, keyspace, statements, resultMapper, executor);
+
+        int initialStatements = Math.min(Math.max(maxInFlight, 1), statements.size());
+
+        for (int i = 0; i < initialStatements; i++) {
+            statementExecutor.executeNext();
+        }
+
+        return statementExecutor.resultFuture;
+    }
+
+    private void executeNext() {
+        if (resultFuture.isDone()) {
+            return;
+        }
+
+        int index = nextStatement.getAndIncrement();
+
+        if (index >= statements.size()) {
+            return;
+        }
+
+        try {
+            ResultSetFuture resultSetFuture = cassandraClient.executeAsync(keyspace, statements.get(index));
+
+            Futures.addCallback(resultSetFuture, new StatementCallback(index), executor);
+        } catch (RuntimeException e) {
+            resultFuture.setException(e);
+        }
+    }
+
+    private class StatementCallback implements FutureCallback<ResultSet> {
+        private final int index;
+
+        private StatementCallback(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void onSuccess(ResultSet result) {
+            try {
+                results.set(index, resultMapper.apply(result));
+            } catch (RuntimeException e) {
+                resultFuture.setException(e);
+                return;
+            }
+
+            if (completedStatements.incrementAndGet() == statements.size()) {
+                List<T> resultList = new ArrayList<>(statements.size());
+
+                for (int i = 0; i < statements.size(); i++) {
+                    resultList.add(results.get(i));
+                }
+
+                resultFuture.set(resultList);
+            } else {
+                executeNext();
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            resultFuture.setException(t);
+        }
+    }
+}
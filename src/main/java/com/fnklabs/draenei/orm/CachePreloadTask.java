@@ -0,0 +1,259 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.TokenRange;
+import com.fnklabs.metrics.MetricsFactory;
+import com.fnklabs.metrics.Timer;
+import com.google.common.util.concurrent.RateLimiter;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cluster.ClusterNode;
+import org.apache.ignite.compute.ComputeJob;
+import org.apache.ignite.compute.ComputeJobResult;
+import org.apache.ignite.compute.ComputeTaskAdapter;
+import org.apache.ignite.resources.IgniteInstanceResource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load all entries from persistence storage into cache
+ * <p>
+ * Token ranges are assigned to Ignite node that is located on the same host as Cassandra replica of range (or any node if there is no such node), so every
+ * node execute one job that scan its ranges in parallel and stream entries into cache by {@link IgniteDataStreamer}. Streamer doesn't overwrite existing
+ * entries, so entries that were changed during preload are not replaced by stale values and streamed entries are not written back to persistence storage.
+ *
+ * @param <Entry> Entity class type
+ */
+class CachePreloadTask<Entry extends Serializable> extends ComputeTaskAdapter<Object, Integer> {
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachePreloadTask.class);
+
+    @NotNull
+    private final Class<Entry> entityClass;
+
+    @NotNull
+    private final CassandraClientFactory cassandraClientFactory;
+
+    @NotNull
+    private final String cacheName;
+
+    private final boolean binaryKeyEnabled;
+
+    /**
+     * Token ranges by Cassandra replica host
+     */
+    @NotNull
+    private final Map<Host, Set<TokenRange>> tokenRanges;
+
+    /**
+     * Number of token ranges that are scanned concurrently on every node
+     */
+    private final int parallelism;
+
+    /**
+     * Max number of entries that are streamed into cache per second by every node
+     */
+    private final double maxEntriesPerSecond;
+
+    /**
+     * @param entityClass            Entity class
+     * @param cassandraClientFactory Cassandra client factory, must be serializable and create client on remote nodes
+     * @param cacheName              Ignite cache name
+     * @param binaryKeyEnabled       Use {@link EntityKey} as cache key instead of hash of primary key
+     * @param tokenRanges            Token ranges by Cassandra replica host
+     * @param parallelism            Number of token ranges that are scanned concurrently on every node
+     * @param maxEntriesPerSecond    Max number of entries that are streamed into cache per second by every node
+     */
+    CachePreloadTask(@NotNull Class<Entry> entityClass,
+                     @NotNull CassandraClientFactory cassandraClientFactory,
+                     @NotNull String cacheName,
+                     boolean binaryKeyEnabled,
+                     @NotNull Map<Host, Set<TokenRange>> tokenRanges,
+                     int parallelism,
+                     double maxEntriesPerSecond) {
+        this.entityClass = entityClass;
+        this.cassandraClientFactory = cassandraClientFactory;
+        this.cacheName = cacheName;
+        this.binaryKeyEnabled = binaryKeyEnabled;
+        this.tokenRanges = tokenRanges;
+        this.parallelism = parallelism;
+        this.maxEntriesPerSecond = maxEntriesPerSecond;
+    }
+
+    @NotNull
+    @Override
+    public Map<? extends ComputeJob, ClusterNode> map(List<ClusterNode> subgrid, @Nullable Object arg) throws IgniteException {
+        Map<ClusterNode, List<long[]>> rangesByNode = new HashMap<>();
+
+        int nextNode = 0;
+
+        for (Map.Entry<Host, Set<TokenRange>> entry : tokenRanges.entrySet()) {
+            String hostAddress = entry.getKey().getAddress().getHostAddress();
+
+            ClusterNode clusterNode = subgrid.stream()
+                                             .filter(node -> node.addresses().contains(hostAddress))
+                                             .findFirst()
+                                             .orElse(subgrid.get(nextNode++ % subgrid.size()));
+
+            List<long[]> nodeRanges = rangesByNode.computeIfAbsent(clusterNode, node -> new ArrayList<>());
+
+            for (TokenRange tokenRange : entry.getValue()) {
+                long start = (Long) tokenRange.getStart().getValue();
+                long end = (Long) tokenRange.getEnd().getValue();
+
+                // unwrapped range that ends with min token covers the rest of the ring
+                nodeRanges.add(new long[]{start, end == Long.MIN_VALUE ? Long.MAX_VALUE : end});
+            }
+        }
+
+        Map<PreloadJob<Entry>, ClusterNode> jobs = new HashMap<>();
+
+        rangesByNode.forEach((node, ranges) -> {
+            LOGGER.debug("Preload {} token ranges on node {}", ranges.size(), node.addresses());
+
+            jobs.put(new PreloadJob<>(entityClass, cassandraClientFactory, cacheName, binaryKeyEnabled, ranges, parallelism, maxEntriesPerSecond), node);
+        });
+
+        return jobs;
+    }
+
+    @Nullable
+    @Override
+    public Integer reduce(List<ComputeJobResult> results) throws IgniteException {
+        int loadedEntries = 0;
+
+        for (ComputeJobResult result : results) {
+            loadedEntries += result.<Integer>getData();
+        }
+
+        return loadedEntries;
+    }
+
+    /**
+     * Scan token ranges on current node and stream entries into cache
+     *
+     * @param <Entry> Entity class type
+     */
+    private static class PreloadJob<Entry extends Serializable> implements ComputeJob {
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final Class<Entry> entityClass;
+
+        @NotNull
+        private final CassandraClientFactory cassandraClientFactory;
+
+        @NotNull
+        private final String cacheName;
+
+        private final boolean binaryKeyEnabled;
+
+        @NotNull
+        private final List<long[]> ranges;
+
+        private final int parallelism;
+
+        private final double maxEntriesPerSecond;
+
+        @IgniteInstanceResource
+        private transient Ignite ignite;
+
+        private transient volatile boolean cancelled;
+
+        PreloadJob(@NotNull Class<Entry> entityClass,
+                   @NotNull CassandraClientFactory cassandraClientFactory,
+                   @NotNull String cacheName,
+                   boolean binaryKeyEnabled,
+                   @NotNull List<long[]> ranges,
+                   int parallelism,
+                   double maxEntriesPerSecond) {
+            this.entityClass = entityClass;
+            this.cassandraClientFactory = cassandraClientFactory;
+            this.cacheName = cacheName;
+            this.binaryKeyEnabled = binaryKeyEnabled;
+            this.ranges = ranges;
+            this.parallelism = parallelism;
+            this.maxEntriesPerSecond = maxEntriesPerSecond;
+        }
+
+        @Override
+        public Integer execute() throws IgniteException {
+            Timer timer = MetricsFactory.getMetrics().getTimer("cacheable_data_provider.preload.job");
+
+            // ranges are scanned by executorService threads, provider has its own pool so its callbacks don't run on driver I/O threads and don't wait
+            // for busy scan threads
+            ExecutorService dataProviderExecutorService = Executors.newFixedThreadPool(Math.max(parallelism, 1));
+
+            DataProvider<Entry> dataProvider = new DataProvider<>(entityClass, cassandraClientFactory, dataProviderExecutorService);
+
+            RateLimiter rateLimiter = RateLimiter.create(maxEntriesPerSecond);
+
+            ExecutorService executorService = Executors.newFixedThreadPool(Math.max(parallelism, 1));
+
+            try (IgniteDataStreamer<Object, Entry> dataStreamer = ignite.dataStreamer(cacheName)) {
+                dataStreamer.allowOverwrite(false);
+
+                List<Future<Integer>> futures = new ArrayList<>();
+
+                for (long[] range : ranges) {
+                    futures.add(executorService.submit(() -> {
+                        if (cancelled) {
+                            return 0;
+                        }
+
+                        return dataProvider.load(range[0], range[1], entry -> {
+                            rateLimiter.acquire();
+
+                            Object key = binaryKeyEnabled ? dataProvider.buildEntityKey(entry) : dataProvider.buildHashCode(entry);
+
+                            dataStreamer.addData(key, entry);
+                        });
+                    }));
+                }
+
+                int loadedEntries = 0;
+
+                for (Future<Integer> future : futures) {
+                    loadedEntries += future.get();
+                }
+
+                timer.stop();
+
+                LOGGER.debug("Complete to preload {} entries of {} token ranges in {}", loadedEntries, ranges.size(), timer);
+
+                return loadedEntries;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new IgniteException(e);
+            } catch (ExecutionException e) {
+                LOGGER.warn("Can't preload entries", e.getCause());
+
+                throw new IgniteException(e.getCause());
+            } finally {
+                executorService.shutdownNow();
+                dataProviderExecutorService.shutdownNow();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
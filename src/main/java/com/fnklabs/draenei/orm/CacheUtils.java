@@ -1,12 +1,32 @@
 package com.fnklabs.draenei.orm;
 
+import com.fnklabs.draenei.orm.annotations.EntityCache;
+import com.fnklabs.draenei.orm.annotations.Table;
+import com.fnklabs.draenei.orm.exception.MetadataException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ignite.cache.CacheAtomicityMode;
 import org.apache.ignite.cache.CacheMemoryMode;
 import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.cache.eviction.EvictionPolicy;
+import org.apache.ignite.cache.eviction.fifo.FifoEvictionPolicy;
 import org.apache.ignite.cache.eviction.lru.LruEvictionPolicy;
 import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.NearCacheConfiguration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.cache.configuration.Factory;
+import javax.cache.expiry.AccessedExpiryPolicy;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.ExpiryPolicy;
+import javax.cache.expiry.ModifiedExpiryPolicy;
+import javax.cache.expiry.TouchedExpiryPolicy;
+import java.io.Externalizable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Cache utils
@@ -43,14 +63,174 @@ class CacheUtils {
     }
 
     /**
-     * Get default cache configuration for specified entity class
+     * Get default cache configuration for specified entity class, if entity class is annotated by {@link EntityCache} then configuration is built from
+     * annotation. If entity has {@link Table#ttl()} and cache expiry isn't set by annotation entries expire after TTL since last update as rows in Cassandra
      *
      * @param entityClass Entity class
      * @param <Entry>     Entity class typ
      *
      * @return Cache Configuration for specified entity class
      */
-    static <Entry> CacheConfiguration<Long, Entry> getDefaultCacheConfiguration(Class<Entry> entityClass) {
-        return getDefaultCacheConfiguration(getCacheName(entityClass));
+    static <Entry> CacheConfiguration<Object, Entry> getDefaultCacheConfiguration(Class<Entry> entityClass) {
+        CacheConfiguration<Object, Entry> cacheConfiguration = getDefaultCacheConfiguration(getCacheName(entityClass));
+
+        EntityCache entityCache = entityClass.getAnnotation(EntityCache.class);
+
+        if (entityCache != null) {
+            applyEntityCacheConfiguration(cacheConfiguration, entityCache);
+        }
+
+        Table table = entityClass.getAnnotation(Table.class);
+
+        if (table != null && table.ttl() > 0 && (entityCache == null || entityCache.expiry() <= 0)) {
+            cacheConfiguration.setExpiryPolicyFactory(ModifiedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, table.ttl())));
+        }
+
+        return cacheConfiguration;
+    }
+
+    /**
+     * Get configuration of cache that holds query results of entity cache
+     *
+     * @param cacheName        Entity cache name
+     * @param expireAfterWrite Query result expiration time in milliseconds
+     * @param <Entry>          Entity class type
+     *
+     * @return Query results cache configuration
+     */
+    static <Entry> CacheConfiguration<Object, ArrayList<Entry>> getQueryCacheConfiguration(@NotNull String cacheName, long expireAfterWrite) {
+        CacheConfiguration<Object, ArrayList<Entry>> cacheConfiguration = getDefaultCacheConfiguration(String.format("%s.queries", cacheName));
+        cacheConfiguration.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.MILLISECONDS, expireAfterWrite)));
+
+        return cacheConfiguration;
+    }
+
+    /**
+     * Check if entries of entity class are stored in Ignite binary form
+     *
+     * @param entityClass Entity class
+     *
+     * @return True if entity class is annotated by {@link EntityCache} with enabled binary storage
+     */
+    static boolean isBinaryStorageEnabled(@NotNull Class<?> entityClass) {
+        EntityCache entityCache = entityClass.getAnnotation(EntityCache.class);
+
+        return entityCache != null && entityCache.binaryStorage();
+    }
+
+    /**
+     * Check that entries of entity class can be stored in Ignite binary form with fields. Binary marshaller stores classes with custom Java serialization
+     * by optimized marshaller, so their fields can't be read from binary object
+     *
+     * @param entityClass Entity class
+     *
+     * @throws MetadataException if entity class implements {@link Externalizable} or declares {@code writeObject} or {@code readObject} method
+     */
+    static void validateBinaryStorage(@NotNull Class<?> entityClass) {
+        if (Externalizable.class.isAssignableFrom(entityClass)) {
+            throw new MetadataException(String.format("Binary storage of %s is not supported because it's Externalizable", entityClass.getName()));
+        }
+
+        for (Class<?> clazz = entityClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            if (hasDeclaredMethod(clazz, "writeObject", ObjectOutputStream.class) || hasDeclaredMethod(clazz, "readObject", ObjectInputStream.class)) {
+                throw new MetadataException(String.format("Binary storage of %s is not supported because %s has custom serialization",
+                                                          entityClass.getName(),
+                                                          clazz.getName()));
+            }
+        }
+    }
+
+    /**
+     * Get expiry time of entries
+     *
+     * @param cacheConfiguration Cache configuration
+     *
+     * @return Expiry time in milliseconds since entry creation or 0 if entries never expire
+     */
+    static long getExpiry(@NotNull CacheConfiguration<?, ?> cacheConfiguration) {
+        Factory<ExpiryPolicy> expiryPolicyFactory = cacheConfiguration.getExpiryPolicyFactory();
+
+        if (expiryPolicyFactory == null) {
+            return 0;
+        }
+
+        Duration duration = expiryPolicyFactory.create().getExpiryForCreation();
+
+        if (duration == null || duration.isEternal() || duration.isZero()) {
+            return 0;
+        }
+
+        return duration.getTimeUnit().toMillis(duration.getDurationAmount());
+    }
+
+    /**
+     * Apply entity cache annotation to cache configuration
+     *
+     * @param cacheConfiguration Cache configuration
+     * @param entityCache        Entity cache annotation
+     * @param <Entry>            Entity class type
+     */
+    private static <Entry> void applyEntityCacheConfiguration(@NotNull CacheConfiguration<Object, Entry> cacheConfiguration, @NotNull EntityCache entityCache) {
+        cacheConfiguration.setMemoryMode(entityCache.memoryMode());
+        cacheConfiguration.setOffHeapMaxMemory(entityCache.offHeapMaxMemory());
+        cacheConfiguration.setBackups(entityCache.backups());
+        cacheConfiguration.setEvictionPolicy(buildEvictionPolicy(entityCache.evictionPolicy(), entityCache.maxEntries(), entityCache.maxMemory()));
+
+        if (entityCache.expiry() > 0) {
+            cacheConfiguration.setExpiryPolicyFactory(buildExpiryPolicyFactory(entityCache.expiryType(), new Duration(TimeUnit.MILLISECONDS, entityCache.expiry())));
+        }
+
+        if (entityCache.binaryStorage() && entityCache.memoryMode() == CacheMemoryMode.ONHEAP_TIERED) {
+            cacheConfiguration.setMemoryMode(CacheMemoryMode.OFFHEAP_VALUES);
+        }
+
+        if (entityCache.nearCache()) {
+            NearCacheConfiguration<Object, Entry> nearCacheConfiguration = new NearCacheConfiguration<>();
+            nearCacheConfiguration.setNearEvictionPolicy(new LruEvictionPolicy<>(entityCache.nearCacheMaxEntries()));
+
+            cacheConfiguration.setNearConfiguration(nearCacheConfiguration);
+        }
+    }
+
+    private static boolean hasDeclaredMethod(@NotNull Class<?> clazz, @NotNull String name, @NotNull Class<?> parameterType) {
+        try {
+            clazz.getDeclaredMethod(name, parameterType);
+
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Nullable
+    private static <Entry> EvictionPolicy<Object, Entry> buildEvictionPolicy(@NotNull EntityCache.EvictionPolicy evictionPolicy, int maxEntries, long maxMemory) {
+        switch (evictionPolicy) {
+            case LRU:
+                LruEvictionPolicy<Object, Entry> lruEvictionPolicy = new LruEvictionPolicy<>(maxEntries);
+                lruEvictionPolicy.setMaxMemorySize(maxMemory);
+
+                return lruEvictionPolicy;
+            case FIFO:
+                FifoEvictionPolicy<Object, Entry> fifoEvictionPolicy = new FifoEvictionPolicy<>(maxEntries);
+                fifoEvictionPolicy.setMaxMemorySize(maxMemory);
+
+                return fifoEvictionPolicy;
+            default:
+                return null;
+        }
+    }
+
+    @NotNull
+    private static Factory<? extends ExpiryPolicy> buildExpiryPolicyFactory(@NotNull EntityCache.ExpiryType expiryType, @NotNull Duration duration) {
+        switch (expiryType) {
+            case MODIFIED:
+                return ModifiedExpiryPolicy.factoryOf(duration);
+            case ACCESSED:
+                return AccessedExpiryPolicy.factoryOf(duration);
+            case TOUCHED:
+                return TouchedExpiryPolicy.factoryOf(duration);
+            default:
+                return CreatedExpiryPolicy.factoryOf(duration);
+        }
     }
 }
@@ -1,27 +1,58 @@
 package com.fnklabs.draenei.orm;
 
 
+import com.fnklabs.draenei.analytics.AnalyticsUtils;
+import com.fnklabs.draenei.orm.annotations.EntityCache;
+import com.fnklabs.draenei.orm.annotations.Table;
 import com.fnklabs.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.binary.BinaryObject;
 import org.apache.ignite.cache.CacheEntryProcessor;
 import org.apache.ignite.configuration.CacheConfiguration;
 import org.apache.ignite.events.CacheEvent;
 import org.apache.ignite.events.Event;
 import org.apache.ignite.events.EventType;
+import org.apache.ignite.lang.IgniteFuture;
 import org.apache.ignite.lang.IgnitePredicate;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.TouchedExpiryPolicy;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
+
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DataProvider that working through cache layer
@@ -29,15 +60,140 @@ import java.util.concurrent.ExecutorService;
  * Current implementation doesn't guarantee full data consistency because it write data into persistent storage asynchronously in background and old record can rewrite new record
  * in  storage.
  * <p>
- * Ignite must be configured to process cache eventType: {@code org.apache.ignite.configuration.IgniteConfiguration#setIncludeEventTypes(org.apache.ignite.events.EventType.EVTS_CACHE)}
+ * In {@link PersistenceMode#CACHE_EVENTS} mode Ignite must be configured to process cache eventType: {@code org.apache.ignite.configuration.IgniteConfiguration#setIncludeEventTypes(org.apache.ignite.events.EventType.EVTS_CACHE)}.
+ * Entities with {@link Table#ttl()} are saved by provider instead of put events, so entries loaded from persistence storage don't restart TTL of rows.
+ * In {@link PersistenceMode#WRITE_BEHIND} mode changes are persisted by {@link DataProviderCacheStore} and cache events are not required.
+ * In {@link PersistenceMode#JOURNAL} mode changes are written to local journal ({@link #getJournalDirectory()}) and persisted by node-local flusher.
  *
  * @param <Entry> Entry class type
  */
 public class CacheableDataProvider<Entry extends Serializable> extends DataProvider<Entry> {
 
     public static final Logger LOGGER = LoggerFactory.getLogger(CacheableDataProvider.class);
-    private final IgniteCache<Long, Entry> cache;
+    /**
+     * Default expiration time of in-process cache entry in milliseconds
+     */
+    private static final long DEFAULT_LOCAL_CACHE_EXPIRE_AFTER_WRITE = TimeUnit.MINUTES.toMillis(1);
+    /**
+     * Default max number of keys in negative cache
+     */
+    private static final long DEFAULT_NEGATIVE_CACHE_SIZE = 100000;
+    /**
+     * Default expiration time of negative cache entry in milliseconds
+     */
+    private static final long DEFAULT_NEGATIVE_CACHE_EXPIRE_AFTER_WRITE = TimeUnit.MINUTES.toMillis(5);
+    /**
+     * Default number of token ranges that are scanned concurrently on every node during preload
+     */
+    private static final int DEFAULT_PRELOAD_PARALLELISM = 4;
+    /**
+     * Default max number of entries that are streamed into cache per second by every node during preload
+     */
+    private static final double DEFAULT_PRELOAD_MAX_ENTRIES_PER_SECOND = 10000;
+    /**
+     * Default max number of keys in hot keys snapshot
+     */
+    private static final int DEFAULT_HOT_KEY_SNAPSHOT_SIZE = 10000;
+    /**
+     * Default interval between hot keys snapshots in milliseconds
+     */
+    private static final long DEFAULT_HOT_KEY_SNAPSHOT_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    /**
+     * Default expiration time of cached query result in milliseconds
+     */
+    private static final long DEFAULT_QUERY_CACHE_EXPIRE_AFTER_WRITE = TimeUnit.MINUTES.toMillis(1);
+    /**
+     * Default journal segment size in bytes
+     */
+    private static final int DEFAULT_JOURNAL_SEGMENT_SIZE = 64 * 1024 * 1024;
+    /**
+     * Default max number of keys which write time is tracked for refresh-ahead
+     */
+    private static final long DEFAULT_REFRESH_AHEAD_TRACKED_KEYS = 100000;
+    /**
+     * Number of tracked keys per key in hot keys snapshot
+     */
+    private static final int HOT_KEY_TRACKING_FACTOR = 10;
+    private final IgniteCache<Object, Entry> cache;
+    /**
+     * Cache with enabled async mode, result of last operation of current thread is retrieved by {@link IgniteCache#future()}
+     */
+    private final IgniteCache<Object, Entry> asyncCache;
+    /**
+     * Cache to which entries loaded from persistence storage are put, it skips cache store so loaded entries are not written back
+     */
+    private final IgniteCache<Object, Entry> loadCache;
+    /**
+     * Load cache with enabled async mode
+     */
+    private final IgniteCache<Object, Entry> asyncLoadCache;
     private final CassandraClientFactory cassandraClientFactory;
+    @NotNull
+    private final Ignite ignite;
+    @NotNull
+    private final PersistenceMode persistenceMode;
+    /**
+     * Saved entries are persisted by provider instead of cache put events, so entries loaded from persistence storage are not saved again and TTL of
+     * their rows is not restarted. Used for entities with {@link Table#ttl()} in {@link PersistenceMode#CACHE_EVENTS} mode
+     */
+    private final boolean persistedOnSave;
+    /**
+     * Use binary cache keys
+     */
+    private final boolean binaryKeyEnabled;
+    /**
+     * Load missed entry only once for all concurrent callers
+     */
+    private final boolean singleFlightLoadEnabled;
+    /**
+     * In flight loads of missed entries by cache key
+     */
+    private final ConcurrentHashMap<Object, ListenableFuture<Entry>> inFlightLoads = new ConcurrentHashMap<>();
+    /**
+     * In-process cache in front of Ignite cache or null if it's disabled
+     */
+    @Nullable
+    private final LocalEntryCache<Entry> localCache;
+    /**
+     * Filter of absent keys or null if it's disabled
+     */
+    @Nullable
+    private final AbsentKeyFilter absentKeyFilter;
+    /**
+     * Cache that returns entries in binary form or null if binary storage is disabled
+     */
+    @Nullable
+    private final IgniteCache<Object, BinaryObject> binaryCache;
+    /**
+     * Cache of query results by primary key prefix or null if query cache is disabled
+     */
+    @Nullable
+    private final IgniteCache<Object, ArrayList<Entry>> queryCache;
+    /**
+     * Query cache with enabled async mode or null if query cache is disabled
+     */
+    @Nullable
+    private final IgniteCache<Object, ArrayList<Entry>> asyncQueryCache;
+    /**
+     * Local journal of not persisted changes or null if persistence mode isn't {@link PersistenceMode#JOURNAL}
+     */
+    @Nullable
+    private final WriteJournal<Entry> writeJournal;
+    /**
+     * Access frequency tracker of keys or null if hot keys snapshot is disabled
+     */
+    @Nullable
+    private final HotKeyTracker hotKeyTracker;
+    /**
+     * Write time tracker of entries that must be refreshed before expiry or null if refresh-ahead is disabled
+     */
+    @Nullable
+    private final RefreshAheadTracker refreshAheadTracker;
+    /**
+     * Cache that restarts entry expiry time on every operation or null if refresh-ahead is disabled
+     */
+    @Nullable
+    private final IgniteCache<Object, Entry> refreshCache;
 
     public CacheableDataProvider(@NotNull Class<Entry> clazz,
                                  @NotNull CassandraClientFactory cassandraClientFactory,
@@ -46,41 +202,129 @@ public class CacheableDataProvider<Entry extends Serializable> extends DataProvi
         super(clazz, cassandraClientFactory, executorService);
 
         this.cassandraClientFactory = cassandraClientFactory;
-        cache = ignite.getOrCreateCache(getCacheConfiguration());
+        this.ignite = ignite;
+        this.persistenceMode = getPersistenceMode();
+        this.persistedOnSave = persistenceMode == PersistenceMode.CACHE_EVENTS && getTtl() > 0;
+        this.binaryKeyEnabled = isBinaryKeyEnabled() || persistenceMode == PersistenceMode.WRITE_BEHIND;
+        this.singleFlightLoadEnabled = isSingleFlightLoadEnabled();
+
+        CacheConfiguration<Object, Entry> cacheConfiguration = getCacheConfiguration();
+
+        if (persistenceMode == PersistenceMode.WRITE_BEHIND) {
+            configureWriteBehind(cacheConfiguration);
+        }
+
+        boolean binaryStorageEnabled = CacheUtils.isBinaryStorageEnabled(getEntityClass());
+
+        if (binaryStorageEnabled) {
+            CacheUtils.validateBinaryStorage(getEntityClass());
+        }
+
+        cache = ignite.getOrCreateCache(cacheConfiguration);
+        asyncCache = cache.withAsync();
+        loadCache = cache.withSkipStore();
+        asyncLoadCache = loadCache.withAsync();
+        binaryCache = binaryStorageEnabled ? cache.withKeepBinary() : null;
 
-        initializeEventListener(ignite);
+        double refreshAheadFactor = getRefreshAheadFactor();
+
+        if (refreshAheadFactor < 0 || refreshAheadFactor >= 1) {
+            throw new IllegalArgumentException(String.format("Invalid refresh-ahead factor: %f", refreshAheadFactor));
+        }
+
+        long expiry = CacheUtils.getExpiry(cacheConfiguration);
+
+        if (refreshAheadFactor > 0 && expiry > 0 && getTtl() == 0) {
+            refreshAheadTracker = new RefreshAheadTracker((long) (expiry * refreshAheadFactor), expiry, getRefreshAheadTrackedKeys());
+            refreshCache = loadCache.withExpiryPolicy(new TouchedExpiryPolicy(new Duration(TimeUnit.MILLISECONDS, expiry)));
+        } else {
+            if (refreshAheadFactor > 0 && getTtl() > 0) {
+                LOGGER.warn("Refresh-ahead of cache {} is disabled because entity rows expire by TTL", cache.getName());
+            } else if (refreshAheadFactor > 0) {
+                LOGGER.warn("Refresh-ahead of cache {} is disabled because cache entries never expire", cache.getName());
+            }
+
+            refreshAheadTracker = null;
+            refreshCache = null;
+        }
+
+        long localCacheSize = getLocalCacheSize();
+
+        localCache = localCacheSize > 0 ? new LocalEntryCache<>(ignite, cache.getName(), localCacheSize, getLocalCacheExpireAfterWrite(), TimeUnit.MILLISECONDS) : null;
+
+        absentKeyFilter = isAbsentKeyFilterEnabled() ? new AbsentKeyFilter(ignite, cache.getName(), getNegativeCacheSize(), getNegativeCacheExpireAfterWrite(), TimeUnit.MILLISECONDS) : null;
+
+        if (isQueryCacheEnabled()) {
+            queryCache = ignite.getOrCreateCache(getQueryCacheConfiguration());
+            asyncQueryCache = queryCache.withAsync();
+        } else {
+            queryCache = null;
+            asyncQueryCache = null;
+        }
+
+        if (persistenceMode == PersistenceMode.CACHE_EVENTS) {
+            initializeEventListener(ignite);
+        }
+
+        if (isChangeFeedSubscriptionEnabled()) {
+            new EntityChangeFeed(ignite).subscribe(getEntityClass(), this::onExternalChanges);
+        }
+
+        if (persistenceMode == PersistenceMode.JOURNAL) {
+            writeJournal = createWriteJournal();
+
+            scheduleJournalFlushes();
+        } else {
+            writeJournal = null;
+        }
+
+        Path hotKeySnapshotFile = getHotKeySnapshotFile();
+
+        if (hotKeySnapshotFile != null) {
+            int hotKeySnapshotSize = getHotKeySnapshotSize();
+
+            hotKeyTracker = new HotKeyTracker(hotKeySnapshotFile, hotKeySnapshotSize, (long) hotKeySnapshotSize * HOT_KEY_TRACKING_FACTOR, this::buildEntityKey);
+
+            scheduleHotKeySnapshots();
+        } else {
+            hotKeyTracker = null;
+        }
     }
 
     @Override
     public ListenableFuture<Entry> findOneAsync(Object... keys) {
         Timer time = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_FIND.name());
 
-        long cacheKey = buildHashCode(keys);
+        Object cacheKey = buildCacheKey(keys);
 
-        Entry entry = cache.get(cacheKey);
+        recordAccess(cacheKey, keys);
 
-        if (entry != null) {
-            getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_HITS.name()).inc();
+        Entry localEntry = getLocalEntry(cacheKey);
+
+        if (localEntry != null) {
+            time.stop();
 
-            return Futures.immediateFuture(entry);
+            return Futures.immediateFuture(localEntry);
         }
 
-        // try to load entity from DB
-        ListenableFuture<Entry> findFuture = super.findOneAsync(keys);
+        asyncCache.get(cacheKey);
 
-        Futures.addCallback(findFuture, new FutureCallback<Entry>() {
-            @Override
-            public void onSuccess(Entry result) {
-                if (result != null) {
-                    cache.put(cacheKey, result);
-                }
-            }
+        ListenableFuture<Entry> cacheFuture = toListenableFuture(asyncCache.<Entry>future());
 
-            @Override
-            public void onFailure(Throwable t) {
-                LOGGER.warn("Can't get entry from DB", t);
+        ListenableFuture<Entry> findFuture = Futures.transform(cacheFuture, (AsyncFunction<Entry, Entry>) entry -> {
+            if (entry != null) {
+                getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_HITS.name()).inc();
+
+                putLocalEntry(cacheKey, entry);
+
+                refreshAhead(cacheKey, entry, keys);
+
+                return Futures.immediateFuture(entry);
             }
-        });
+
+            // try to load entity from DB
+            return loadMissedEntry(cacheKey, keys);
+        }, getExecutorService());
 
         monitorFuture(time, findFuture);
 
@@ -91,20 +335,41 @@ public class CacheableDataProvider<Entry extends Serializable> extends DataProvi
     public Entry findOne(Object... keys) {
         Timer time = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_FIND.name());
 
-        long cacheKey = buildHashCode(keys);
+        Object cacheKey = buildCacheKey(keys);
 
-        Entry entry = cache.get(cacheKey);
+        recordAccess(cacheKey, keys);
+
+        Entry entry = getLocalEntry(cacheKey);
+
+        if (entry != null) {
+            time.stop();
+
+            return entry;
+        }
+
+        entry = cache.get(cacheKey);
 
         if (entry != null) {
             getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_HITS.name()).inc();
 
-            time.stop();
+            putLocalEntry(cacheKey, entry);
+
+            refreshAhead(cacheKey, entry, keys);
+        } else if (singleFlightLoadEnabled) {
+            entry = awaitResult(loadSingleFlight(cacheKey, keys));
+        } else if (!isAbsent(keys)) {
+            long saveGeneration = getSaveGeneration(keys);
 
-        } else {
             entry = super.findOne(keys);
 
+            markIfAbsent(entry, saveGeneration, keys);
+
             if (entry != null) {
-                cache.put(cacheKey, entry);
+                loadCache.put(cacheKey, entry);
+
+                putLocalEntry(cacheKey, entry);
+
+                onPut(cacheKey);
             }
         }
 
@@ -113,114 +378,1559 @@ public class CacheableDataProvider<Entry extends Serializable> extends DataProvi
         return entry;
     }
 
-    @Override
-    public List<Entry> find(Object... keys) {
-        return super.find(keys);
-    }
-
     /**
-     * Execute entry processor on entry cache
+     * Get entries by primary key prefix, if query cache is enabled result is retrieved from query cache and query is executed only on cache miss
      *
-     * @param entry          Entry on which will be executed entry processor
-     * @param entryProcessor Entry processor that must be executed
-     * @param <ReturnValue>  ClassType
+     * @param keys Primary key prefix, must contain at least all partition keys and not all primary keys to use query cache
      *
-     * @return Return value from entry processor
+     * @return Found entries
      */
-    public <ReturnValue> ReturnValue executeOnEntry(@NotNull Entry entry, @NotNull CacheEntryProcessor<Long, Entry, ReturnValue> entryProcessor) {
-        long key = buildHashCode(entry);
+    @Override
+    public ListenableFuture<List<Entry>> findAsync(Object... keys) {
+        if (!isQueryCacheable(keys)) {
+            return super.findAsync(keys);
+        }
 
-        if (!cache.containsKey(key)) {
-            List<Object> primaryKeys = getPrimaryKeys(entry);
+        Timer time = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_FIND_QUERY.name());
 
-            List<Entry> entries = super.fetch(primaryKeys);
+        Object queryKey = buildCacheKey(keys);
 
-            Optional<Entry> first = entries.stream().findFirst();
+        asyncQueryCache.get(queryKey);
 
-            if (first.isPresent()) {
-                cache.putIfAbsent(key, first.get());
+        ListenableFuture<ArrayList<Entry>> cacheFuture = toListenableFuture(asyncQueryCache.<ArrayList<Entry>>future());
+
+        ListenableFuture<List<Entry>> findFuture = Futures.transform(cacheFuture, (AsyncFunction<ArrayList<Entry>, List<Entry>>) entries -> {
+            if (entries != null) {
+                getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_QUERY_HITS.name()).inc();
+
+                return Futures.immediateFuture(entries);
             }
-        }
 
-        return cache.invoke(key, entryProcessor);
+            return Futures.transform(super.findAsync(keys), (List<Entry> loadedEntries) -> {
+                queryCache.put(queryKey, new ArrayList<>(loadedEntries));
+
+                return loadedEntries;
+            });
+        }, getExecutorService());
+
+        monitorFuture(time, findFuture);
+
+        return findFuture;
     }
 
     /**
-     * Put entity to cache, save to persistence storage operation will be executed in background
+     * Get entries by primary key prefix, if query cache is enabled result is retrieved from query cache and query is executed only on cache miss
      *
-     * @param entity Target entity
+     * @param keys Primary key prefix, must contain at least all partition keys and not all primary keys to use query cache
      *
-     * @return Future for put to cache operation
+     * @return Found entries
      */
     @Override
-    public ListenableFuture<Boolean> saveAsync(@NotNull Entry entity) {
-        Timer time = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_PUT_TO_CACHE.name());
+    public List<Entry> find(Object... keys) {
+        if (!isQueryCacheable(keys)) {
+            return super.find(keys);
+        }
 
-        long cacheKey = buildHashCode(entity);
+        Timer time = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_FIND_QUERY.name());
+
+        Object queryKey = buildCacheKey(keys);
+
+        List<Entry> entries = queryCache.get(queryKey);
+
+        if (entries != null) {
+            getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_QUERY_HITS.name()).inc();
+        } else {
+            entries = super.find(keys);
 
-        cache.put(cacheKey, entity);
+            queryCache.put(queryKey, new ArrayList<>(entries));
+        }
 
         time.stop();
 
-        return Futures.immediateFuture(true);
+        return entries;
     }
 
     /**
-     * Remove entity from cache, remove from persistence storage operation will be executed in background
+     * Get entries by several primary keys, cached entries are retrieved by single cache request and only missed entries are loaded from persistence storage
+     * and put to cache
      *
-     * @param entity Target entity
+     * @param keys Primary keys of each entry
      *
-     * @return Future for remove from cache operation
+     * @return Found entries
      */
-    public ListenableFuture<Boolean> removeAsync(@NotNull Entry entity) {
+    @Override
+    public ListenableFuture<List<Entry>> findAllAsync(@NotNull Collection<Object[]> keys) {
+        Timer time = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_FIND_ALL.name());
 
-        Timer timer = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_REMOVE_FROM_CACHE.name());
+        Map<Object, Object[]> keysByCacheKey = new LinkedHashMap<>();
 
-        long key = buildHashCode(entity);
+        for (Object[] key : keys) {
+            Object cacheKey = buildCacheKey(key);
 
-        cache.remove(key);
+            recordAccess(cacheKey, key);
 
-        timer.stop();
+            keysByCacheKey.put(cacheKey, key);
+        }
+
+        Map<Object, Entry> cachedEntries = new HashMap<>();
+
+        if (localCache != null) {
+            for (Object cacheKey : keysByCacheKey.keySet()) {
+                Entry localEntry = getLocalEntry(cacheKey);
+
+                if (localEntry != null) {
+                    cachedEntries.put(cacheKey, localEntry);
+                }
+            }
+        }
+
+        Set<Object> remoteKeys = new HashSet<>(keysByCacheKey.keySet());
+        remoteKeys.removeAll(cachedEntries.keySet());
+
+        ListenableFuture<Map<Object, Entry>> remoteFuture;
+
+        if (remoteKeys.isEmpty()) {
+            remoteFuture = Futures.immediateFuture(Collections.emptyMap());
+        } else {
+            asyncCache.getAll(remoteKeys);
+
+            remoteFuture = toListenableFuture(asyncCache.<Map<Object, Entry>>future());
+        }
+
+        ListenableFuture<List<Entry>> resultFuture = Futures.transform(remoteFuture, (AsyncFunction<Map<Object, Entry>, List<Entry>>) remoteEntries -> {
+            remoteEntries.forEach(this::putLocalEntry);
+
+            cachedEntries.putAll(remoteEntries);
+
+            List<Object[]> missedKeys = new ArrayList<>();
+
+            for (Map.Entry<Object, Object[]> keyEntry : keysByCacheKey.entrySet()) {
+                if (remoteEntries.containsKey(keyEntry.getKey())) {
+                    getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_HITS.name()).inc();
+
+                    refreshAhead(keyEntry.getKey(), remoteEntries.get(keyEntry.getKey()), keyEntry.getValue());
+                } else if (!cachedEntries.containsKey(keyEntry.getKey()) && !isAbsent(keyEntry.getValue())) {
+                    missedKeys.add(keyEntry.getValue());
+                }
+            }
+
+            if (missedKeys.isEmpty()) {
+                return Futures.immediateFuture(new ArrayList<>(cachedEntries.values()));
+            }
+
+            // try to load missed entities from DB
+            return Futures.transform(super.findAllAsync(missedKeys), (AsyncFunction<List<Entry>, List<Entry>>) loadedEntries -> {
+                Map<Object, Entry> entriesByCacheKey = new HashMap<>();
+
+                for (Entry loadedEntry : loadedEntries) {
+                    entriesByCacheKey.put(buildCacheKey(loadedEntry), loadedEntry);
+                }
+
+                asyncLoadCache.putAll(entriesByCacheKey);
+
+                ListenableFuture<?> putFuture = toListenableFuture(asyncLoadCache.future());
+
+                entriesByCacheKey.forEach(this::putLocalEntry);
+
+                entriesByCacheKey.keySet().forEach(this::onPut);
+
+                List<Entry> result = new ArrayList<>(cachedEntries.values());
+                result.addAll(loadedEntries);
+
+                return Futures.transform(putFuture, (Object putResult) -> result);
+            }, getExecutorService());
+        }, getExecutorService());
+
+        monitorFuture(time, resultFuture);
 
-        return Futures.immediateFuture(true);
+        return resultFuture;
     }
 
     /**
-     * Return ignite cache configuration
+     * Read single field of entry without deserialization of whole entry
      *
-     * @return CacheConfiguration instance
+     * @param fieldName Entity field name, field must be mapped to column
+     * @param keys      Primary key values
+     * @param <T>       Field class type
+     *
+     * @return Field value or null if entry is not found
+     *
+     * @see #readFields(Collection, Object...)
      */
-    @NotNull
-    public CacheConfiguration<Long, Entry> getCacheConfiguration() {
-        return CacheUtils.getDefaultCacheConfiguration(getEntityClass());
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T readField(@NotNull String fieldName, Object... keys) {
+        Map<String, Object> fields = readFields(Collections.singleton(fieldName), keys);
 
+        return fields == null ? null : (T) fields.get(fieldName);
     }
 
-    @NotNull
-    private String getMapName() {
-        return cache.getName();
-    }
+    /**
+     * Read subset of entry fields without deserialization of whole entry
+     * <p>
+     * Only requested fields are read from cached binary object (nested objects are deserialized). If entry is absent in cache it's loaded from persistence
+     * storage and put to cache as by {@link #findOne(Object...)}
+     *
+     * @param fieldNames Entity field names, fields must be mapped to columns
+     * @param keys       Primary key values
+     *
+     * @return Field values by field name in requested order or null if entry is not found
+     *
+     * @throws IllegalStateException    if binary storage is disabled by {@link EntityCache#binaryStorage()}
+     * @throws IllegalArgumentException if field is not mapped to column
+     */
+    @Nullable
+    public Map<String, Object> readFields(@NotNull Collection<String> fieldNames, Object... keys) {
+        if (binaryCache == null) {
+            throw new IllegalStateException("Binary storage is disabled");
+        }
 
-    private void initializeEventListener(@NotNull Ignite ignite) {
-        ignite.events()
-              .localListen(new LocalCacheEventListener(),
-                      EventType.EVT_CACHE_OBJECT_EXPIRED,
-                      EventType.EVT_CACHE_OBJECT_PUT,
-                      EventType.EVT_CACHE_OBJECT_REMOVED);
-    }
+        for (String fieldName : fieldNames) {
+            if (getColumnMetadata(fieldName) == null) {
+                throw new IllegalArgumentException(String.format("Field `%s` of %s is not mapped to column", fieldName, getEntityClass().getName()));
+            }
+        }
 
-    private enum MetricsType {
-        CACHEABLE_DATA_PROVIDER_FIND,
-        CACHEABLE_DATA_PROVIDER_PUT_TO_CACHE,
-        CACHEABLE_DATA_PROVIDER_HITS,
-        CACHEABLE_DATA_PROVIDER_REMOVE_FROM_CACHE;
+        Timer time = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_READ_FIELDS.name());
+
+        Object cacheKey = buildCacheKey(keys);
+
+        BinaryObject binaryObject = binaryCache.get(cacheKey);
+
+        if (binaryObject != null) {
+            getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_HITS.name()).inc();
+
+            recordAccess(cacheKey, keys);
+        } else {
+            Entry entry = findOne(keys);
+
+            if (entry == null) {
+                time.stop();
+
+                return null;
+            }
+
+            binaryObject = ignite.binary().toBinary(entry);
+        }
 
+        Map<String, Object> fields = new LinkedHashMap<>();
+
+        for (String fieldName : fieldNames) {
+            Object value = binaryObject.field(fieldName);
+
+            fields.put(fieldName, value instanceof BinaryObject ? ((BinaryObject) value).deserialize() : value);
+        }
+
+        time.stop();
+
+        return fields;
     }
 
     /**
-     * LocalCache listener perform save and remove operation into persistence storage when retrieve event from cache
+     * Execute entry processor on entry cache
+     *
+     * @param entry          Entry on which will be executed entry processor
+     * @param entryProcessor Entry processor that must be executed
+     * @param <ReturnValue>  ClassType
+     *
+     * @return Return value from entry processor
+     *
+     * @throws java.io.UncheckedIOException if change can't be appended to journal in {@link PersistenceMode#JOURNAL} mode
      */
-    private class LocalCacheEventListener implements IgnitePredicate<Event> {
+    public <ReturnValue> ReturnValue executeOnEntry(@NotNull Entry entry, @NotNull CacheEntryProcessor<Object, Entry, ReturnValue> entryProcessor) {
+        Object key = buildCacheKey(entry);
+
+        if (!cache.containsKey(key)) {
+            List<Object> primaryKeys = getPrimaryKeys(entry);
+
+            List<Entry> entries = super.fetch(primaryKeys);
+
+            Optional<Entry> first = entries.stream().findFirst();
+
+            if (first.isPresent()) {
+                loadCache.putIfAbsent(key, first.get());
+            }
+        }
+
+        ReturnValue result = cache.invoke(key, entryProcessor);
+
+        invalidateLocalEntry(key);
+
+        onSave(entry);
+
+        invalidateQueries(entry);
+
+        persistProcessedEntries(Collections.singletonMap(key, entry));
+
+        return result;
+    }
+
+    /**
+     * Execute entry processor on several entries
+     * <p>
+     * Entry processor is executed on cached entries by single {@link IgniteCache#invokeAll} request, missed entries are loaded from persistence storage by
+     * one multi-key read and entry processor is executed on them by second {@code invokeAll} request (loaded entry is put to cache if it's still absent).
+     *
+     * @param entries        Entries on which entry processor must be executed
+     * @param entryProcessor Entry processor that must be executed
+     * @param <ReturnValue>  ClassType
+     *
+     * @return Return values of entry processor in entries order
+     *
+     * @throws java.io.UncheckedIOException if changes can't be appended to journal in {@link PersistenceMode#JOURNAL} mode
+     */
+    @SuppressWarnings("unchecked")
+    public <ReturnValue> List<ReturnValue> executeOnEntries(@NotNull Collection<Entry> entries,
+                                                            @NotNull CacheEntryProcessor<Object, Entry, ReturnValue> entryProcessor) {
+        Timer time = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_EXECUTE_ON_ENTRIES.name());
+
+        List<Object> cacheKeys = new ArrayList<>(entries.size());
+        Map<Object, Entry> entriesByCacheKey = new LinkedHashMap<>();
+
+        for (Entry entry : entries) {
+            Object cacheKey = buildCacheKey(entry);
+
+            cacheKeys.add(cacheKey);
+            entriesByCacheKey.put(cacheKey, entry);
+        }
+
+        Map<Object, EntryProcessorResult<Object>> cachedResults = cache.invokeAll(entriesByCacheKey.keySet(), new CachedEntryProcessor<>(entryProcessor));
+
+        Map<Object, ReturnValue> results = new HashMap<>();
+        List<Object> missedKeys = new ArrayList<>();
+
+        cachedResults.forEach((cacheKey, result) -> {
+            Object value = result.get();
+
+            if (value == MissedEntry.INSTANCE) {
+                missedKeys.add(cacheKey);
+            } else {
+                results.put(cacheKey, (ReturnValue) value);
+            }
+        });
+
+        if (!missedKeys.isEmpty()) {
+            List<Object[]> missedPrimaryKeys = new ArrayList<>(missedKeys.size());
+
+            for (Object missedKey : missedKeys) {
+                missedPrimaryKeys.add(getPrimaryKeys(entriesByCacheKey.get(missedKey)).toArray());
+            }
+
+            Map<Object, Entry> loadedEntries = new HashMap<>();
+
+            for (Entry loadedEntry : awaitResult(super.findAllAsync(missedPrimaryKeys))) {
+                loadedEntries.put(buildCacheKey(loadedEntry), loadedEntry);
+            }
+
+            Map<Object, LoadedEntryProcessor<Entry, ReturnValue>> processors = new HashMap<>();
+
+            for (Object missedKey : missedKeys) {
+                processors.put(missedKey, new LoadedEntryProcessor<>(loadedEntries.get(missedKey), entryProcessor));
+            }
+
+            cache.invokeAll(processors).forEach((cacheKey, result) -> results.put(cacheKey, result.get()));
+        }
+
+        entriesByCacheKey.forEach((cacheKey, entry) -> {
+            invalidateLocalEntry(cacheKey);
+
+            onSave(entry);
+
+            invalidateQueries(entry);
+        });
+
+        persistProcessedEntries(entriesByCacheKey);
+
+        List<ReturnValue> returnValues = new ArrayList<>(cacheKeys.size());
+
+        for (Object cacheKey : cacheKeys) {
+            returnValues.add(results.get(cacheKey));
+        }
+
+        time.stop();
+
+        return returnValues;
+    }
+
+    /**
+     * Put entity to cache, save to persistence storage operation will be executed in background
+     *
+     * @param entity Target entity
+     *
+     * @return Future for put to cache operation
+     */
+    @Override
+    public ListenableFuture<Boolean> saveAsync(@NotNull Entry entity) {
+        Timer time = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_PUT_TO_CACHE.name());
+
+        Object cacheKey = buildCacheKey(entity);
+
+        try {
+            appendToJournal(WriteJournal.Operation.PUT, entity);
+        } catch (RuntimeException e) {
+            time.stop();
+
+            return Futures.immediateFailedFuture(e);
+        }
+
+        onSave(entity);
+
+        invalidateQueries(entity);
+
+        asyncCache.put(cacheKey, entity);
+
+        onPut(cacheKey);
+
+        if (persistedOnSave) {
+            invalidateQueriesOnCompletion(entity, super.saveAsync(entity));
+        }
+
+        ListenableFuture<Boolean> putFuture = toCompletionFuture(asyncCache.future());
+
+        monitorFuture(time, putFuture);
+
+        return invalidateLocalEntryOnCompletion(cacheKey, putFuture);
+    }
+
+    /**
+     * Remove entity from cache, remove from persistence storage operation will be executed in background
+     *
+     * @param entity Target entity
+     *
+     * @return Future for remove from cache operation
+     */
+    @Override
+    public ListenableFuture<Boolean> removeAsync(@NotNull Entry entity) {
+
+        Timer timer = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_REMOVE_FROM_CACHE.name());
+
+        Object key = buildCacheKey(entity);
+
+        try {
+            appendToJournal(WriteJournal.Operation.REMOVE, entity);
+        } catch (RuntimeException e) {
+            timer.stop();
+
+            return Futures.immediateFailedFuture(e);
+        }
+
+        invalidateQueries(entity);
+
+        asyncCache.remove(key);
+
+        // remove result is True even if entry wasn't cached, as entity is removed from persistence storage anyway
+        ListenableFuture<Boolean> removeFuture = toCompletionFuture(asyncCache.future());
+
+        monitorFuture(timer, removeFuture);
+
+        return invalidateLocalEntryOnCompletion(key, removeFuture);
+    }
+
+    /**
+     * Changes of cacheable provider are applied to cache that is shared by all nodes, so they are never published
+     *
+     * @return null
+     */
+    @Nullable
+    @Override
+    protected final EntityChangeFeed getChangeFeed() {
+        return null;
+    }
+
+    /**
+     * Subscribe to {@link EntityChangeFeed} of entity, so entries that were changed through {@link DataProvider} with enabled change feed (e.g. by other
+     * services that don't use cache) are cleared from cache without persistence, removed from in-process and query caches and saved keys are removed from
+     * absent keys filter. Every subscribed node clears only its own copies of changed entries, so every node that stores cache entries must have provider
+     * instance. Entry that is being loaded concurrently with change can be put to cache stale. Enabled by default
+     *
+     * @return True if cache must be invalidated by change feed
+     */
+    protected boolean isChangeFeedSubscriptionEnabled() {
+        return true;
+    }
+
+    /**
+     * Invalidate entries that were changed outside of cache
+     *
+     * @param changes Changes of entities
+     */
+    private void onExternalChanges(@NotNull List<EntityChangeEvent> changes) {
+        Set<Object> cacheKeys = new HashSet<>();
+
+        for (EntityChangeEvent change : changes) {
+            List<Object> primaryKeys = getPrimaryKeys(change.getKey());
+
+            Object[] keys = primaryKeys.toArray();
+
+            Object cacheKey = buildCacheKey(keys);
+
+            cacheKeys.add(cacheKey);
+
+            if (localCache != null) {
+                localCache.invalidateLocal(cacheKey);
+            }
+
+            if (change.getChangeType() == EntityChangeEvent.ChangeType.SAVE && absentKeyFilter != null) {
+                absentKeyFilter.onSaveLocal(buildHashCode(keys));
+            }
+
+            invalidateQueries(primaryKeys);
+        }
+
+        // changes are received by every subscribed node, so each node clears its own copies only; clear doesn't fire cache events, so cleared entries
+        // are not persisted
+        cache.localClearAll(cacheKeys);
+
+        getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_EXTERNAL_CHANGES.name()).inc(changes.size());
+    }
+
+    /**
+     * Return ignite cache configuration
+     *
+     * @return CacheConfiguration instance
+     */
+    @NotNull
+    public CacheConfiguration<Object, Entry> getCacheConfiguration() {
+        return CacheUtils.getDefaultCacheConfiguration(getEntityClass());
+
+    }
+
+    /**
+     * Use binary composite {@link EntityKey} as cache key instead of 64-bit hash of primary key. Binary key can't collide and provide affinity by
+     * Cassandra partition, but it's bigger than hash for wide primary keys.
+     * <p>
+     * Value must be same on all nodes that share cache. Binary keys are always used in {@link PersistenceMode#WRITE_BEHIND} mode
+     *
+     * @return True if binary keys must be used
+     */
+    protected boolean isBinaryKeyEnabled() {
+        return false;
+    }
+
+    /**
+     * Check if query result by primary key prefix can be cached
+     *
+     * @param keys Primary key prefix
+     *
+     * @return True if query cache is enabled and prefix contains all partition keys, full primary keys are not cached as queries because entity loads
+     * (e.g. {@link #findOne(Object...)}) select by them
+     */
+    private boolean isQueryCacheable(Object... keys) {
+        return queryCache != null && keys.length >= getPartitionKeySize() && keys.length < getPrimaryKeysSize();
+    }
+
+    /**
+     * Invalidate cached results of all queries that can contain entry
+     *
+     * @param entry Saved or removed entry
+     */
+    private void invalidateQueries(@NotNull Entry entry) {
+        if (asyncQueryCache != null) {
+            invalidateQueries(getPrimaryKeys(entry));
+        }
+    }
+
+    /**
+     * Invalidate cached results of all queries that can contain entry with specified primary keys
+     *
+     * @param primaryKeys Primary key values of saved or removed entry
+     */
+    private void invalidateQueries(@NotNull List<Object> primaryKeys) {
+        if (asyncQueryCache == null) {
+            return;
+        }
+
+        Set<Object> queryKeys = new HashSet<>();
+
+        for (int prefixSize = getPartitionKeySize(); prefixSize < primaryKeys.size(); prefixSize++) {
+            queryKeys.add(buildCacheKey(primaryKeys.subList(0, prefixSize).toArray()));
+        }
+
+        asyncQueryCache.removeAll(queryKeys);
+    }
+
+    /**
+     * Invalidate cached query results of entry once more when change is persisted
+     *
+     * @param entry  Saved or removed entry
+     * @param future Persist operation future
+     */
+    private void invalidateQueriesOnCompletion(@NotNull Entry entry, @NotNull ListenableFuture<Boolean> future) {
+        if (asyncQueryCache != null) {
+            future.addListener(() -> invalidateQueries(entry), getExecutorService());
+        }
+    }
+
+    @NotNull
+    private WriteJournal<Entry> createWriteJournal() {
+        Path journalDirectory = getJournalDirectory();
+
+        if (journalDirectory == null) {
+            throw new IllegalStateException("Journal directory must be specified in JOURNAL persistence mode");
+        }
+
+        return new WriteJournal<>(journalDirectory, getJournalSegmentSize(), isJournalSyncEnabled());
+    }
+
+    /**
+     * Replay changes left by previous run and then periodically flush journal
+     */
+    private void scheduleJournalFlushes() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true)
+                                          .setNameFormat(String.format("draenei-journal-%s-%%d", cache.getName()))
+                                          .build()
+        );
+
+        scheduler.scheduleWithFixedDelay(this::flushJournal, 0, getWriteBehindFlushFrequency(), TimeUnit.MILLISECONDS);
+    }
+
+    private void appendToJournal(@NotNull WriteJournal.Operation operation, @NotNull Entry entity) {
+        if (writeJournal != null) {
+            writeJournal.append(operation, entity);
+        }
+    }
+
+    /**
+     * Append values of entries changed by entry processor to journal or save them if saved entries are persisted by provider (removed entries are
+     * persisted by cache events). Current values are read from cache before change is acknowledged to caller
+     *
+     * @param entriesByCacheKey Changed entries by cache key
+     *
+     * @throws java.io.UncheckedIOException if changes can't be appended to journal
+     */
+    private void persistProcessedEntries(@NotNull Map<Object, Entry> entriesByCacheKey) {
+        if (writeJournal == null && !persistedOnSave) {
+            return;
+        }
+
+        Map<Object, Entry> currentValues = cache.getAll(entriesByCacheKey.keySet());
+
+        entriesByCacheKey.forEach((cacheKey, entry) -> {
+            Entry currentValue = currentValues.get(cacheKey);
+
+            if (writeJournal != null) {
+                if (currentValue != null) {
+                    writeJournal.append(WriteJournal.Operation.PUT, currentValue);
+                } else {
+                    writeJournal.append(WriteJournal.Operation.REMOVE, entry);
+                }
+            } else if (currentValue != null) {
+                invalidateQueriesOnCompletion(currentValue, super.saveAsync(currentValue));
+            }
+        });
+    }
+
+    /**
+     * Persist changes of sealed journal segments in append order and delete segments, on failure segments are kept and retried by next flush
+     */
+    private void flushJournal() {
+        Timer timer = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_FLUSH_JOURNAL.name());
+
+        try {
+            for (Path segment : writeJournal.rotate()) {
+                Map<Object, Entry> savedEntries = new LinkedHashMap<>();
+                Map<Object, Entry> removedEntries = new LinkedHashMap<>();
+
+                writeJournal.read(segment, (operation, entity) -> {
+                    Object cacheKey = buildCacheKey(entity);
+
+                    savedEntries.remove(cacheKey);
+                    removedEntries.remove(cacheKey);
+
+                    if (operation == WriteJournal.Operation.PUT) {
+                        savedEntries.put(cacheKey, entity);
+                    } else {
+                        removedEntries.put(cacheKey, entity);
+                    }
+                });
+
+                List<ListenableFuture<Boolean>> futures = new ArrayList<>();
+
+                if (!savedEntries.isEmpty()) {
+                    futures.add(super.saveAllAsync(savedEntries.values()));
+                }
+
+                if (!removedEntries.isEmpty()) {
+                    futures.add(super.removeAllAsync(removedEntries.values()));
+                }
+
+                for (Boolean result : awaitResult(Futures.allAsList(futures))) {
+                    if (!Boolean.TRUE.equals(result)) {
+                        LOGGER.warn("Can't persist journal segment {}, it will be retried", segment);
+
+                        timer.stop();
+
+                        return;
+                    }
+                }
+
+                writeJournal.delete(segment);
+
+                savedEntries.values().forEach(this::invalidateQueries);
+                removedEntries.values().forEach(this::invalidateQueries);
+
+                LOGGER.debug("Complete to flush journal segment {}: saved {} removed {}", segment, savedEntries.size(), removedEntries.size());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Can't flush journal, it will be retried", e);
+        }
+
+        timer.stop();
+    }
+
+    /**
+     * Record access of full primary key if hot keys snapshot is enabled
+     *
+     * @param cacheKey Cache key
+     * @param keys     Primary key values
+     */
+    private void recordAccess(@NotNull Object cacheKey, @NotNull Object[] keys) {
+        if (hotKeyTracker != null && keys.length == getPrimaryKeysSize()) {
+            hotKeyTracker.recordAccess(cacheKey, keys);
+        }
+    }
+
+    /**
+     * Load keys from previous snapshot in background and then periodically write new snapshots
+     */
+    private void scheduleHotKeySnapshots() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true)
+                                          .setNameFormat(String.format("draenei-hot-keys-%s-%%d", cache.getName()))
+                                          .build()
+        );
+
+        scheduler.execute(this::restoreHotKeys);
+
+        long interval = getHotKeySnapshotInterval();
+
+        scheduler.scheduleWithFixedDelay(this::writeHotKeySnapshot, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Load keys from hot keys snapshot into cache by batches of multi-key reads
+     * <p>
+     * Restored keys are not recorded as accessed, so they are kept in next snapshot only if they are accessed again. Entries are streamed into cache as by
+     * {@link #preload()}, so entries that are already in cache are not overwritten and restored entries are not written back to persistence storage.
+     */
+    private void restoreHotKeys() {
+        Timer timer = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_RESTORE_HOT_KEYS.name());
+
+        try (IgniteDataStreamer<Object, Entry> dataStreamer = ignite.dataStreamer(cache.getName())) {
+            dataStreamer.allowOverwrite(false);
+
+            List<EntityKey> hotKeys = hotKeyTracker.readSnapshot();
+
+            int batchSize = getMaxBatchSize() * getMaxInFlightReads();
+
+            for (List<EntityKey> batch : Lists.partition(hotKeys, batchSize)) {
+                List<Object[]> keys = new ArrayList<>(batch.size());
+
+                for (EntityKey entityKey : batch) {
+                    keys.add(getPrimaryKeys(entityKey).toArray());
+                }
+
+                for (Entry entry : awaitResult(super.findAllAsync(keys))) {
+                    dataStreamer.addData(buildCacheKey(entry), entry);
+                }
+            }
+
+            dataStreamer.flush();
+
+            timer.stop();
+
+            LOGGER.debug("Complete to restore {} hot keys in {}", hotKeys.size(), timer);
+        } catch (IOException | RuntimeException e) {
+            timer.stop();
+
+            LOGGER.warn("Can't restore hot keys", e);
+        }
+    }
+
+    private void writeHotKeySnapshot() {
+        try {
+            hotKeyTracker.writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Can't write hot keys snapshot", e);
+        }
+    }
+
+    /**
+     * Build cache key for entity
+     *
+     * @param entity Entity
+     *
+     * @return {@link EntityKey} or Long hash of primary key
+     */
+    @NotNull
+    private Object buildCacheKey(@NotNull Entry entity) {
+        return binaryKeyEnabled ? buildEntityKey(entity) : buildHashCode(entity);
+    }
+
+    /**
+     * Build cache key for primary key values
+     *
+     * @param keys Primary key values
+     *
+     * @return {@link EntityKey} or Long hash of primary key
+     */
+    @NotNull
+    private Object buildCacheKey(Object... keys) {
+        return binaryKeyEnabled ? buildEntityKey(keys) : buildHashCode(keys);
+    }
+
+    /**
+     * Coalesce concurrent loads of the same missed entry on current node: only first caller load entry from persistence storage and put it to cache, other
+     * callers receive result of its load. Disabled by default
+     *
+     * @return True if concurrent loads of same entry must be coalesced
+     */
+    protected boolean isSingleFlightLoadEnabled() {
+        return false;
+    }
+
+    /**
+     * Load missed entry from persistence storage and put it to cache
+     *
+     * @param cacheKey Cache key
+     * @param keys     Primary keys
+     *
+     * @return Future of loaded entry
+     */
+    private ListenableFuture<Entry> loadMissedEntry(@NotNull Object cacheKey, Object... keys) {
+        if (singleFlightLoadEnabled) {
+            return loadSingleFlight(cacheKey, keys);
+        }
+
+        ListenableFuture<Entry> findFuture = loadFromStorage(keys);
+
+        Futures.addCallback(findFuture, new FutureCallback<Entry>() {
+            @Override
+            public void onSuccess(Entry result) {
+                if (result != null) {
+                    asyncLoadCache.put(cacheKey, result);
+
+                    putLocalEntry(cacheKey, result);
+
+                    onPut(cacheKey);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                LOGGER.warn("Can't get entry from DB", t);
+            }
+        });
+
+        return findFuture;
+    }
+
+    /**
+     * Load entry from persistence storage if it's not known as absent
+     *
+     * @param keys Primary keys
+     *
+     * @return Future of loaded entry
+     */
+    private ListenableFuture<Entry> loadFromStorage(Object... keys) {
+        if (isAbsent(keys)) {
+            return Futures.immediateFuture(null);
+        }
+
+        long saveGeneration = getSaveGeneration(keys);
+
+        ListenableFuture<Entry> findFuture = super.findOneAsync(keys);
+
+        if (absentKeyFilter == null) {
+            return findFuture;
+        }
+
+        return Futures.transform(findFuture, (Entry entry) -> {
+            markIfAbsent(entry, saveGeneration, keys);
+
+            return entry;
+        });
+    }
+
+    /**
+     * Check if entry with specified primary keys definitely doesn't exist
+     *
+     * @param keys Primary keys
+     *
+     * @return True if entry doesn't exist
+     */
+    private boolean isAbsent(Object... keys) {
+        if (absentKeyFilter == null || keys.length != getPrimaryKeysSize()) {
+            return false;
+        }
+
+        boolean absent = absentKeyFilter.isAbsent(buildHashCode(keys));
+
+        if (absent) {
+            getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_ABSENT_KEY_HITS.name()).inc();
+        }
+
+        return absent;
+    }
+
+    /**
+     * Get save generation of full primary key that must be captured before entry is read from persistence storage
+     *
+     * @param keys Primary keys
+     *
+     * @return Save generation or 0 if absent keys filter is disabled or key is partial
+     */
+    private long getSaveGeneration(Object... keys) {
+        if (absentKeyFilter == null || keys.length != getPrimaryKeysSize()) {
+            return 0;
+        }
+
+        return absentKeyFilter.getSaveGeneration(buildHashCode(keys));
+    }
+
+    /**
+     * Mark key as absent if entry was not found and key wasn't saved since read
+     *
+     * @param entry          Loaded entry
+     * @param saveGeneration Save generation of key that was captured before read
+     * @param keys           Primary keys
+     */
+    private void markIfAbsent(@Nullable Entry entry, long saveGeneration, Object... keys) {
+        if (entry == null && absentKeyFilter != null && keys.length == getPrimaryKeysSize()) {
+            absentKeyFilter.markAbsent(buildHashCode(keys), saveGeneration);
+        }
+    }
+
+    private void onSave(@NotNull Entry entry) {
+        if (absentKeyFilter != null) {
+            absentKeyFilter.onSave(buildHashCode(entry));
+        }
+    }
+
+    /**
+     * Load entry from persistence storage and put it to cache if it's still absent or attach to load of the same entry that is already in progress
+     *
+     * @param cacheKey Cache key
+     * @param keys     Primary keys
+     *
+     * @return Future that will be completed after entry is put to cache
+     */
+    private ListenableFuture<Entry> loadSingleFlight(@NotNull Object cacheKey, Object... keys) {
+        SettableFuture<Entry> loadFuture = SettableFuture.create();
+
+        ListenableFuture<Entry> inFlightLoad = inFlightLoads.putIfAbsent(cacheKey, loadFuture);
+
+        if (inFlightLoad != null) {
+            getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_COALESCED_LOADS.name()).inc();
+
+            return inFlightLoad;
+        }
+
+        ListenableFuture<Entry> findFuture;
+
+        try {
+            findFuture = loadFromStorage(keys);
+        } catch (RuntimeException e) {
+            findFuture = Futures.immediateFailedFuture(e);
+        }
+
+        Futures.addCallback(findFuture, new FutureCallback<Entry>() {
+            @Override
+            public void onSuccess(Entry result) {
+                if (result == null) {
+                    inFlightLoads.remove(cacheKey, loadFuture);
+
+                    loadFuture.set(null);
+
+                    return;
+                }
+
+                ListenableFuture<Boolean> putFuture;
+
+                try {
+                    // entry that was written while it was loading is newer than loaded one and must not be overwritten
+                    asyncLoadCache.putIfAbsent(cacheKey, result);
+
+                    putFuture = toListenableFuture(asyncLoadCache.<Boolean>future());
+                } catch (RuntimeException e) {
+                    putFuture = Futures.immediateFailedFuture(e);
+                }
+
+                Futures.addCallback(putFuture, new FutureCallback<Boolean>() {
+                    @Override
+                    public void onSuccess(Boolean put) {
+                        if (Boolean.TRUE.equals(put)) {
+                            putLocalEntry(cacheKey, result);
+
+                            onPut(cacheKey);
+                        }
+
+                        inFlightLoads.remove(cacheKey, loadFuture);
+
+                        loadFuture.set(result);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        LOGGER.warn("Can't put entry to cache", t);
+
+                        inFlightLoads.remove(cacheKey, loadFuture);
+
+                        loadFuture.set(result);
+                    }
+                }, getExecutorService());
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                inFlightLoads.remove(cacheKey, loadFuture);
+
+                loadFuture.setException(t);
+            }
+        }, getExecutorService());
+
+        return loadFuture;
+    }
+
+    /**
+     * Part of cache expiry time (see {@link EntityCache#expiry()}) after which accessed entry is reloaded from persistence storage in background and its
+     * expiry time is restarted, so entries that are accessed at least once per expiry time never expire and are never loaded synchronously. Disabled by
+     * default. Refresh-ahead is always disabled for entities with {@link Table#ttl()}, because reload doesn't restart TTL of row and cached entry would
+     * outlive it
+     * <p>
+     * Refreshed entry replaces cached one only if entity has {@link com.fnklabs.draenei.orm.annotations.WriteTimestamp} and loaded version is newer, so
+     * change that is not persisted yet is never overwritten. If entry is not found in persistence storage (e.g. it was removed) it's not refreshed
+     * and expires. Write time of entries that were put by other nodes is unknown, so they are refreshed on first access on current node.
+     *
+     * @return Refresh-ahead factor in range [0, 1) or 0 if refresh-ahead is disabled
+     */
+    protected double getRefreshAheadFactor() {
+        return 0;
+    }
+
+    /**
+     * Max number of entries which write time is tracked on current node for refresh-ahead, untracked entries are refreshed on every access
+     *
+     * @return Max number of tracked entries
+     */
+    protected long getRefreshAheadTrackedKeys() {
+        return DEFAULT_REFRESH_AHEAD_TRACKED_KEYS;
+    }
+
+    /**
+     * Record that entry was put to cache by current node
+     *
+     * @param cacheKey Cache key
+     */
+    private void onPut(@NotNull Object cacheKey) {
+        if (refreshAheadTracker != null) {
+            refreshAheadTracker.onWrite(cacheKey);
+        }
+    }
+
+    /**
+     * Reload accessed entry in background if it's due for refresh
+     *
+     * @param cacheKey    Cache key
+     * @param cachedEntry Entry that was read from cache
+     * @param keys        Primary keys
+     */
+    private void refreshAhead(@NotNull Object cacheKey, @NotNull Entry cachedEntry, Object... keys) {
+        if (refreshAheadTracker == null || refreshCache == null || !refreshAheadTracker.tryStartRefresh(cacheKey)) {
+            return;
+        }
+
+        getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_REFRESH_AHEAD.name()).inc();
+
+        ListenableFuture<Entry> findFuture;
+
+        try {
+            findFuture = super.findOneAsync(keys);
+        } catch (RuntimeException e) {
+            findFuture = Futures.immediateFailedFuture(e);
+        }
+
+        Futures.addCallback(findFuture, new FutureCallback<Entry>() {
+            @Override
+            public void onSuccess(Entry result) {
+                try {
+                    if (result == null) {
+                        // entry was removed or expired in persistence storage, let cached entry expire
+                        refreshAheadTracker.onRefreshComplete(cacheKey, true);
+
+                        return;
+                    }
+
+                    WriteTimestampMetadata writeTimestampMetadata = getWriteTimestampMetadata();
+
+                    if (writeTimestampMetadata != null && writeTimestampMetadata.readTimestamp(result) > writeTimestampMetadata.readTimestamp(cachedEntry)
+                            && refreshCache.replace(cacheKey, cachedEntry, result)) {
+                        putLocalEntry(cacheKey, result);
+                    } else {
+                        // restart expiry time of cached entry without update
+                        refreshCache.get(cacheKey);
+                    }
+
+                    refreshAheadTracker.onRefreshComplete(cacheKey, true);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Can't refresh cache entry", e);
+
+                    refreshAheadTracker.onRefreshComplete(cacheKey, false);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                LOGGER.warn("Can't refresh cache entry", t);
+
+                refreshAheadTracker.onRefreshComplete(cacheKey, false);
+            }
+        }, getExecutorService());
+    }
+
+    /**
+     * Max number of entries in in-process cache that is used in front of Ignite cache. In-process cache is kept coherent by invalidation messages that are
+     * sent to all nodes when entry is changed through provider
+     *
+     * @return Max number of entries or 0 if in-process cache is disabled (by default)
+     */
+    protected long getLocalCacheSize() {
+        return 0;
+    }
+
+    /**
+     * Time after which entry of in-process cache expires, it limits staleness of entry if invalidation message was lost or was processed concurrently with
+     * entry load
+     *
+     * @return Expiration time in milliseconds
+     */
+    protected long getLocalCacheExpireAfterWrite() {
+        return DEFAULT_LOCAL_CACHE_EXPIRE_AFTER_WRITE;
+    }
+
+    @Nullable
+    private Entry getLocalEntry(@NotNull Object cacheKey) {
+        if (localCache == null) {
+            return null;
+        }
+
+        Entry entry = localCache.get(cacheKey);
+
+        if (entry != null) {
+            getMetrics().getCounter(MetricsType.CACHEABLE_DATA_PROVIDER_LOCAL_HITS.name()).inc();
+        }
+
+        return entry;
+    }
+
+    private void putLocalEntry(@NotNull Object cacheKey, @NotNull Entry entry) {
+        if (localCache != null) {
+            localCache.put(cacheKey, entry);
+        }
+    }
+
+    private void invalidateLocalEntry(@NotNull Object cacheKey) {
+        if (localCache != null) {
+            localCache.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * Invalidate in-process cache entry on current node immediately and on all nodes when cache operation is completed
+     *
+     * @param cacheKey Cache key
+     * @param future   Cache operation future
+     * @param <T>      Future result type
+     *
+     * @return Cache operation future
+     */
+    private <T> ListenableFuture<T> invalidateLocalEntryOnCompletion(@NotNull Object cacheKey, @NotNull ListenableFuture<T> future) {
+        if (localCache == null) {
+            return future;
+        }
+
+        localCache.invalidateLocal(cacheKey);
+
+        future.addListener(() -> localCache.invalidate(cacheKey), getExecutorService());
+
+        return future;
+    }
+
+    /**
+     * Answer lookups of keys that are known as absent without loading them from persistence storage. Keys that were not found are kept in negative cache
+     * (see {@link #getNegativeCacheSize()}) and if {@link #buildAbsentKeyBloomFilter(int, double)} was invoked keys are checked by Bloom filter. Filter
+     * is consulted only after cache miss and only for full primary keys. Disabled by default
+     * <p>
+     * Saved keys are propagated to filters of all nodes only if they are saved through {@link CacheableDataProvider}
+     *
+     * @return True if absent keys filter is enabled
+     */
+    protected boolean isAbsentKeyFilterEnabled() {
+        return false;
+    }
+
+    /**
+     * Max number of keys in negative cache
+     *
+     * @return Negative cache size
+     */
+    protected long getNegativeCacheSize() {
+        return DEFAULT_NEGATIVE_CACHE_SIZE;
+    }
+
+    /**
+     * Time after which key is removed from negative cache
+     *
+     * @return Expiration time in milliseconds
+     */
+    protected long getNegativeCacheExpireAfterWrite() {
+        return DEFAULT_NEGATIVE_CACHE_EXPIRE_AFTER_WRITE;
+    }
+
+    /**
+     * Build Bloom filter of all existing keys on current node by full table scan. Until filter is built only negative cache is used
+     *
+     * @param expectedInsertions       Expected number of entities
+     * @param falsePositiveProbability False positive probability
+     *
+     * @return Number of scanned entities
+     *
+     * @throws IllegalStateException if absent key filter is disabled
+     */
+    public int buildAbsentKeyBloomFilter(int expectedInsertions, double falsePositiveProbability) {
+        if (absentKeyFilter == null) {
+            throw new IllegalStateException("Absent key filter is disabled");
+        }
+
+        Timer timer = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_BUILD_BLOOM_FILTER.name());
+
+        try {
+            return absentKeyFilter.buildBloomFilter(
+                    expectedInsertions,
+                    falsePositiveProbability,
+                    keyHashConsumer -> load(Long.MIN_VALUE, Long.MAX_VALUE, entity -> keyHashConsumer.accept(buildHashCode(entity)))
+            );
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Load all entities from persistence storage into cache
+     * <p>
+     * Table is scanned by token ranges in parallel on all server nodes, every range is scanned by node that is located on the same host as its Cassandra
+     * replica (if there is such node). Entries are streamed into cache with throughput limited by {@link #getPreloadMaxEntriesPerSecond()} on every node.
+     * Entries that are already in cache are not overwritten and streamed entries are not written back to persistence storage.
+     *
+     * @return Number of loaded entities
+     */
+    public int preload() {
+        Timer timer = getMetrics().getTimer(MetricsType.CACHEABLE_DATA_PROVIDER_PRELOAD.name());
+
+        CachePreloadTask<Entry> preloadTask = new CachePreloadTask<>(
+                getEntityClass(),
+                cassandraClientFactory,
+                cache.getName(),
+                binaryKeyEnabled,
+                AnalyticsUtils.splitRangeScanTask(getKeyspace(), getCassandraClient()),
+                getPreloadParallelism(),
+                getPreloadMaxEntriesPerSecond()
+        );
+
+        Integer loadedEntries = ignite.compute(ignite.cluster().forServers()).execute(preloadTask, null);
+
+        timer.stop();
+
+        LOGGER.debug("Complete to preload {} entries into cache {} in {}", loadedEntries, cache.getName(), timer);
+
+        return loadedEntries;
+    }
+
+    /**
+     * Number of token ranges that are scanned concurrently on every node during {@link #preload()}
+     *
+     * @return Preload parallelism
+     */
+    protected int getPreloadParallelism() {
+        return DEFAULT_PRELOAD_PARALLELISM;
+    }
+
+    /**
+     * Max number of entries that are streamed into cache per second by every node during {@link #preload()}
+     *
+     * @return Max entries per second
+     */
+    protected double getPreloadMaxEntriesPerSecond() {
+        return DEFAULT_PRELOAD_MAX_ENTRIES_PER_SECOND;
+    }
+
+    /**
+     * Cache results of prefix queries ({@link #find(Object...)} by partition key or clustering key prefix) in separate cache. Cached results of entry
+     * partition are invalidated when entry is saved or removed through this provider and once more when change is persisted in
+     * {@link PersistenceMode#CACHE_EVENTS} mode. Result that was loaded concurrently with change can be stale until expiration. Disabled by default
+     *
+     * @return True if query results must be cached
+     */
+    protected boolean isQueryCacheEnabled() {
+        return false;
+    }
+
+    /**
+     * Time after which cached query result expires
+     *
+     * @return Expiration time in milliseconds
+     */
+    protected long getQueryCacheExpireAfterWrite() {
+        return DEFAULT_QUERY_CACHE_EXPIRE_AFTER_WRITE;
+    }
+
+    /**
+     * Return ignite configuration of query results cache
+     *
+     * @return CacheConfiguration instance
+     */
+    @NotNull
+    protected CacheConfiguration<Object, ArrayList<Entry>> getQueryCacheConfiguration() {
+        return CacheUtils.getQueryCacheConfiguration(getMapName(), getQueryCacheExpireAfterWrite());
+    }
+
+    /**
+     * Local file to which the hottest keys (by access frequency) are periodically saved. On start keys from snapshot are loaded into cache, so hit rate
+     * is recovered right after restart. Disabled by default
+     *
+     * @return Snapshot file or null if hot keys snapshot is disabled
+     */
+    @Nullable
+    protected Path getHotKeySnapshotFile() {
+        return null;
+    }
+
+    /**
+     * Max number of keys in hot keys snapshot
+     *
+     * @return Snapshot size
+     */
+    protected int getHotKeySnapshotSize() {
+        return DEFAULT_HOT_KEY_SNAPSHOT_SIZE;
+    }
+
+    /**
+     * Interval between hot keys snapshots
+     *
+     * @return Interval in milliseconds
+     */
+    protected long getHotKeySnapshotInterval() {
+        return DEFAULT_HOT_KEY_SNAPSHOT_INTERVAL;
+    }
+
+    /**
+     * Persistence mode of cache changes
+     *
+     * @return Persistence mode, by default {@link PersistenceMode#CACHE_EVENTS}
+     */
+    @NotNull
+    protected PersistenceMode getPersistenceMode() {
+        return PersistenceMode.CACHE_EVENTS;
+    }
+
+    /**
+     * Max number of changed entries in write-behind queue, when it's reached entries are flushed immediately
+     *
+     * @return Write-behind flush size
+     */
+    protected int getWriteBehindFlushSize() {
+        return CacheConfiguration.DFLT_WRITE_BEHIND_FLUSH_SIZE;
+    }
+
+    /**
+     * Interval in which changed entries are flushed into Cassandra, every key is written no more than once per interval. Used in
+     * {@link PersistenceMode#WRITE_BEHIND} and {@link PersistenceMode#JOURNAL} modes
+     *
+     * @return Write-behind flush frequency in milliseconds
+     */
+    protected long getWriteBehindFlushFrequency() {
+        return CacheConfiguration.DFLT_WRITE_BEHIND_FLUSH_FREQUENCY;
+    }
+
+    /**
+     * Max number of entries in one {@link DataProviderCacheStore#writeAll(Collection)} and {@link DataProviderCacheStore#deleteAll(Collection)} call
+     *
+     * @return Write-behind batch size
+     */
+    protected int getWriteBehindBatchSize() {
+        return CacheConfiguration.DFLT_WRITE_BEHIND_BATCH_SIZE;
+    }
+
+    /**
+     * Directory of local journal in {@link PersistenceMode#JOURNAL} mode, must not be shared with other nodes or caches. Journal is flushed every
+     * {@link #getWriteBehindFlushFrequency()}
+     *
+     * @return Journal directory or null if it's not specified
+     */
+    @Nullable
+    protected Path getJournalDirectory() {
+        return null;
+    }
+
+    /**
+     * Size of journal segment, segment is deleted when all its changes are persisted
+     *
+     * @return Segment size in bytes
+     */
+    protected int getJournalSegmentSize() {
+        return DEFAULT_JOURNAL_SEGMENT_SIZE;
+    }
+
+    /**
+     * Force journal changes to storage device before change is applied to cache. Otherwise journal survives process crash but changes can be lost on OS
+     * crash. Disabled by default
+     *
+     * @return True if every journal append must be synced
+     */
+    protected boolean isJournalSyncEnabled() {
+        return false;
+    }
+
+    private void configureWriteBehind(@NotNull CacheConfiguration<Object, Entry> cacheConfiguration) {
+        cacheConfiguration.setCacheStoreFactory(new DataProviderCacheStoreFactory<>(getEntityClass(), cassandraClientFactory));
+        cacheConfiguration.setReadThrough(false);
+        cacheConfiguration.setWriteThrough(true);
+        cacheConfiguration.setWriteBehindEnabled(true);
+        cacheConfiguration.setWriteBehindFlushSize(getWriteBehindFlushSize());
+        cacheConfiguration.setWriteBehindFlushFrequency(getWriteBehindFlushFrequency());
+        cacheConfiguration.setWriteBehindBatchSize(getWriteBehindBatchSize());
+    }
+
+    /**
+     * Convert Ignite future of cache update into ListenableFuture that is completed by True when update is completed
+     *
+     * @param igniteFuture Ignite future
+     *
+     * @return ListenableFuture that will be completed with True
+     */
+    private static ListenableFuture<Boolean> toCompletionFuture(@NotNull IgniteFuture<?> igniteFuture) {
+        return Futures.transform(toListenableFuture(igniteFuture), (Object result) -> Boolean.TRUE);
+    }
+
+    /**
+     * Convert Ignite future into ListenableFuture
+     *
+     * @param igniteFuture Ignite future
+     * @param <T>          Result type
+     *
+     * @return ListenableFuture that will be completed with Ignite future result
+     */
+    private static <T> ListenableFuture<T> toListenableFuture(@NotNull IgniteFuture<T> igniteFuture) {
+        SettableFuture<T> future = SettableFuture.create();
+
+        igniteFuture.listen(completedFuture -> {
+            try {
+                future.set(completedFuture.get());
+            } catch (RuntimeException e) {
+                future.setException(e);
+            }
+        });
+
+        return future;
+    }
+
+    @NotNull
+    private String getMapName() {
+        return cache.getName();
+    }
+
+    private void initializeEventListener(@NotNull Ignite ignite) {
+        ignite.events()
+              .localListen(new LocalCacheEventListener(),
+                      EventType.EVT_CACHE_OBJECT_EXPIRED,
+                      EventType.EVT_CACHE_OBJECT_PUT,
+                      EventType.EVT_CACHE_OBJECT_REMOVED);
+    }
+
+    private enum MetricsType {
+        CACHEABLE_DATA_PROVIDER_FIND,
+        CACHEABLE_DATA_PROVIDER_FIND_ALL,
+        CACHEABLE_DATA_PROVIDER_PUT_TO_CACHE,
+        CACHEABLE_DATA_PROVIDER_HITS,
+        CACHEABLE_DATA_PROVIDER_LOCAL_HITS,
+        CACHEABLE_DATA_PROVIDER_ABSENT_KEY_HITS,
+        CACHEABLE_DATA_PROVIDER_BUILD_BLOOM_FILTER,
+        CACHEABLE_DATA_PROVIDER_PRELOAD,
+        CACHEABLE_DATA_PROVIDER_RESTORE_HOT_KEYS,
+        CACHEABLE_DATA_PROVIDER_EXECUTE_ON_ENTRIES,
+        CACHEABLE_DATA_PROVIDER_READ_FIELDS,
+        CACHEABLE_DATA_PROVIDER_FIND_QUERY,
+        CACHEABLE_DATA_PROVIDER_QUERY_HITS,
+        CACHEABLE_DATA_PROVIDER_FLUSH_JOURNAL,
+        CACHEABLE_DATA_PROVIDER_COALESCED_LOADS,
+        CACHEABLE_DATA_PROVIDER_REMOVE_FROM_CACHE,
+        CACHEABLE_DATA_PROVIDER_REFRESH_AHEAD,
+        CACHEABLE_DATA_PROVIDER_EXTERNAL_CHANGES;
+
+    }
+
+    /**
+     * Result of {@link CachedEntryProcessor} for entry that is absent in cache
+     */
+    private enum MissedEntry {
+        INSTANCE
+    }
+
+    /**
+     * Execute entry processor only on entry that exists in cache
+     */
+    private static class CachedEntryProcessor<Entry, ReturnValue> implements CacheEntryProcessor<Object, Entry, Object> {
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final CacheEntryProcessor<Object, Entry, ReturnValue> entryProcessor;
+
+        private CachedEntryProcessor(@NotNull CacheEntryProcessor<Object, Entry, ReturnValue> entryProcessor) {
+            this.entryProcessor = entryProcessor;
+        }
+
+        @Override
+        public Object process(MutableEntry<Object, Entry> entry, Object... arguments) throws EntryProcessorException {
+            if (!entry.exists()) {
+                return MissedEntry.INSTANCE;
+            }
+
+            return entryProcessor.process(entry, arguments);
+        }
+    }
+
+    /**
+     * Put entry loaded from persistence storage if entry is still absent in cache and execute entry processor
+     */
+    private static class LoadedEntryProcessor<Entry, ReturnValue> implements CacheEntryProcessor<Object, Entry, ReturnValue> {
+        private static final long serialVersionUID = 1L;
+
+        @Nullable
+        private final Entry loadedEntry;
+
+        @NotNull
+        private final CacheEntryProcessor<Object, Entry, ReturnValue> entryProcessor;
+
+        private LoadedEntryProcessor(@Nullable Entry loadedEntry, @NotNull CacheEntryProcessor<Object, Entry, ReturnValue> entryProcessor) {
+            this.loadedEntry = loadedEntry;
+            this.entryProcessor = entryProcessor;
+        }
+
+        @Override
+        public ReturnValue process(MutableEntry<Object, Entry> entry, Object... arguments) throws EntryProcessorException {
+            if (!entry.exists() && loadedEntry != null) {
+                entry.setValue(loadedEntry);
+            }
+
+            return entryProcessor.process(entry, arguments);
+        }
+    }
+
+    /**
+     * LocalCache listener perform save and remove operation into persistence storage when retrieve event from cache
+     */
+    private class LocalCacheEventListener implements IgnitePredicate<Event> {
 
         @Override
         public boolean apply(Event event) {
@@ -231,13 +1941,23 @@ public class CacheableDataProvider<Entry extends Serializable> extends DataProvi
 
                     switch (cacheEvent.type()) {
                         case EventType.EVT_CACHE_OBJECT_EXPIRED:
-                            CacheableDataProvider.super.saveAsync((Entry) cacheEvent.newValue());
+                            // expiry of entity with TTL mirrors expiry of its row, so it must not be saved again
+                            if (getTtl() == 0) {
+                                CacheableDataProvider.super.saveAsync((Entry) cacheEvent.newValue());
+                            }
                             break;
                         case EventType.EVT_CACHE_OBJECT_PUT:
-                            CacheableDataProvider.super.saveAsync((Entry) cacheEvent.newValue());
+                            // put of entity with TTL can be load of its row, saved entities are persisted by provider
+                            if (!persistedOnSave) {
+                                Entry savedEntry = (Entry) cacheEvent.newValue();
+
+                                invalidateQueriesOnCompletion(savedEntry, CacheableDataProvider.super.saveAsync(savedEntry));
+                            }
                             break;
                         case EventType.EVT_CACHE_OBJECT_REMOVED:
-                            CacheableDataProvider.super.removeAsync((Entry) cacheEvent.oldValue());
+                            Entry removedEntry = (Entry) cacheEvent.oldValue();
+
+                            invalidateQueriesOnCompletion(removedEntry, CacheableDataProvider.super.removeAsync(removedEntry));
                             break;
                     }
                 }
@@ -17,6 +17,14 @@ interface ColumnMetadata {
     @NotNull
     String getName();
 
+    /**
+     * Get entity property (field) name
+     *
+     * @return Property name
+     */
+    @NotNull
+    String getPropertyName();
+
     /**
      * Get field class type
      *
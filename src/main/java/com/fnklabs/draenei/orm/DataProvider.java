@@ -1,11 +1,7 @@
 package com.fnklabs.draenei.orm;
 
 import com.datastax.driver.core.*;
-import com.datastax.driver.core.exceptions.SyntaxError;
-import com.datastax.driver.core.querybuilder.Delete;
-import com.datastax.driver.core.querybuilder.Insert;
-import com.datastax.driver.core.querybuilder.QueryBuilder;
-import com.datastax.driver.core.querybuilder.Select;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
 import com.fnklabs.draenei.CassandraClient;
 import com.fnklabs.draenei.orm.exception.CanNotBuildEntryCacheKey;
 import com.fnklabs.draenei.orm.exception.MetadataException;
@@ -13,33 +9,47 @@ import com.fnklabs.draenei.orm.exception.QueryException;
 import com.fnklabs.metrics.Metrics;
 import com.fnklabs.metrics.MetricsFactory;
 import com.fnklabs.metrics.Timer;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DataProvider<V> {
     private static final Logger LOGGER = LoggerFactory.getLogger(DataProvider.class);
-    /**
-     * hashing function to build Entity hash code
-     */
-    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
-
     @NotNull
     private static final com.fnklabs.metrics.Metrics METRICS = MetricsFactory.getMetrics();
+    /**
+     * Default max number of statements in one batch
+     */
+    private static final int DEFAULT_MAX_BATCH_SIZE = 50;
+    /**
+     * Default max number of values in IN clause of one select
+     */
+    private static final int DEFAULT_MAX_IN_VALUES = 50;
+    /**
+     * Default max number of concurrently executed batches
+     */
+    private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 16;
+    /**
+     * Default max number of concurrently executed read queries
+     */
+    private static final int DEFAULT_MAX_IN_FLIGHT_READS = 32;
     /**
      * Entity class
      */
@@ -54,10 +64,21 @@ public class DataProvider<V> {
     private final CassandraClientFactory cassandraClient;
     @NotNull
     private final Function<Row, V> mapToObjectFunction;
+    /**
+     * Precompiled entity statements
+     */
+    @NotNull
+    private final StatementPlan statementPlan;
 
     @NotNull
     private final ExecutorService executorService;
 
+    /**
+     * Write coalescer for single entity writes or null if coalescing is disabled
+     */
+    @Nullable
+    private final WriteCoalescer writeCoalescer;
+
     /**
      * Construct provider
      *
@@ -71,6 +92,19 @@ public class DataProvider<V> {
         this.executorService = executorService;
         this.entityMetadata = build(clazz);
         this.mapToObjectFunction = new MapToObjectFunction<>(clazz, entityMetadata);
+        this.statementPlan = StatementPlan.build(entityMetadata, getCassandraClient());
+
+        long writeCoalescingWindow = getWriteCoalescingWindowMicros();
+
+        this.writeCoalescer = writeCoalescingWindow > 0 ? new WriteCoalescer(
+                statementPlan,
+                statement -> getCassandraClient().executeAsync(entityMetadata.getKeyspace(), statement),
+                executorService,
+                entityMetadata.getWriteConsistencyLevel(),
+                writeCoalescingWindow,
+                TimeUnit.MICROSECONDS,
+                getMaxBatchSize()
+        ) : null;
     }
 
     /**
@@ -83,27 +117,11 @@ public class DataProvider<V> {
     public ListenableFuture<Boolean> saveAsync(@NotNull V entity) {
         Timer saveAsyncTimer = METRICS.getTimer(MetricsType.DATA_PROVIDER_SAVE.name());
 
-        Insert insert = QueryBuilder.insertInto(getEntityMetadata().getTableName());
+        BoundStatement boundStatement = getStatementPlan().bindInsert(entity);
 
-        List<ColumnMetadata> columns = getEntityMetadata().getFieldMetaData();
+        List<EntityChangeEvent> changes = buildChanges(EntityChangeEvent.ChangeType.SAVE, Collections.singleton(entity));
 
-        columns.forEach(column -> insert.value(column.getName(), QueryBuilder.bindMarker()));
-
-        ListenableFuture<Boolean> resultFuture;
-
-        try {
-            PreparedStatement prepare = getCassandraClient().prepare(getEntityMetadata().getKeyspace(), insert.getQueryString());
-            prepare.setConsistencyLevel(getWriteConsistencyLevel());
-
-            BoundStatement boundStatement = createBoundStatement(prepare, entity, columns);
-
-            ResultSetFuture input = getCassandraClient().executeAsync(boundStatement);
-            resultFuture = Futures.transform(input, ResultSet::wasApplied, getExecutorService());
-        } catch (SyntaxError e) {
-            LOGGER.warn("Can't prepare query: " + insert.getQueryString(), e);
-
-            resultFuture = Futures.immediateFailedFuture(e);
-        }
+        ListenableFuture<Boolean> resultFuture = publishOnSuccess(changes, executeWriteAsync(boundStatement));
 
         monitorFuture(saveAsyncTimer, resultFuture);
 
@@ -120,89 +138,111 @@ public class DataProvider<V> {
     public Boolean save(@NotNull V entity) {
         Timer saveAsyncTimer = METRICS.getTimer(MetricsType.DATA_PROVIDER_SAVE.name());
 
-        Insert insert = QueryBuilder.insertInto(getEntityMetadata().getTableName());
-        List<ColumnMetadata> columns = getEntityMetadata().getFieldMetaData();
-        columns.forEach(column -> insert.value(column.getName(), QueryBuilder.bindMarker()));
-
         try {
-            String keyspace = getEntityMetadata().getKeyspace();
+            BoundStatement boundStatement = getStatementPlan().bindInsert(entity);
 
-            PreparedStatement prepare = getCassandraClient().prepare(keyspace, insert.getQueryString());
-            prepare.setConsistencyLevel(getWriteConsistencyLevel());
+            List<EntityChangeEvent> changes = buildChanges(EntityChangeEvent.ChangeType.SAVE, Collections.singleton(entity));
 
-            BoundStatement boundStatement = createBoundStatement(prepare, entity, columns);
+            if (writeCoalescer != null) {
+                // pending writes of same row must not be overtaken
+                return awaitResult(publishOnSuccess(changes, writeCoalescer.submit(boundStatement)));
+            }
 
-            ResultSet input = getCassandraClient().execute(keyspace, boundStatement);
+            ResultSet input = getCassandraClient().execute(getEntityMetadata().getKeyspace(), boundStatement);
 
-            return input.wasApplied();
-        } catch (SyntaxError e) {
-            LOGGER.warn("Can't prepare query: " + insert.getQueryString(), e);
+            publish(changes);
 
+            return input.wasApplied();
         } finally {
             saveAsyncTimer.stop();
         }
-
-        return false;
     }
 
     /**
-     * Remove entity asynchronously
+     * Save entities asynchronously
+     * <p>
+     * Entities are grouped by partition key, each partition is written by UNLOGGED batch (split by {@link #getMaxBatchSize()} statements) and no more than
+     * {@link #getMaxInFlightBatches()} batches are executed concurrently. Statements are not passed through write coalescer.
      *
-     * @param entity Target entity
+     * @param entities Target entities
      *
-     * @return Operation status result
+     * @return Operation status result, True if all statements were applied
      */
-    public ListenableFuture<Boolean> removeAsync(@NotNull V entity) {
-        Timer removeAsyncTimer = METRICS.getTimer(MetricsType.DATA_PROVIDER_REMOVE.name());
-
-        Delete from = QueryBuilder.delete()
-                                  .from(getEntityMetadata().getTableName());
-
-        int primaryKeysSize = getEntityMetadata().getPrimaryKeysSize();
+    public ListenableFuture<Boolean> saveAllAsync(@NotNull Collection<V> entities) {
+        Timer timer = getMetrics().getTimer(MetricsType.DATA_PROVIDER_SAVE_ALL.name());
 
-        Delete.Where where = null;
+        List<EntityChangeEvent> changes = buildChanges(EntityChangeEvent.ChangeType.SAVE, entities);
 
-        for (int i = 0; i < primaryKeysSize; i++) {
-            Optional<PrimaryKeyMetadata> primaryKey = getEntityMetadata().getPrimaryKey(i);
+        ListenableFuture<Boolean> resultFuture = publishOnSuccess(changes, executeBatches(entities, getStatementPlan()::bindInsert));
 
-            if (!primaryKey.isPresent()) {
-                throw new QueryException(String.format("Invalid primary key index: %d", i));
-            }
-
-            PrimaryKeyMetadata primaryKeyMetadata = primaryKey.get();
+        monitorFuture(timer, resultFuture);
 
-            if (i == 0) {
-                where = from.where(QueryBuilder.eq(primaryKeyMetadata.getName(), QueryBuilder.bindMarker()));
-            } else {
-                where = where.and(QueryBuilder.eq(primaryKeyMetadata.getName(), QueryBuilder.bindMarker()));
-            }
+        return resultFuture;
+    }
 
-        }
+    /**
+     * Save entities
+     *
+     * @param entities Target entities
+     *
+     * @return Operation status result, True if all statements were applied
+     *
+     * @see #saveAllAsync(Collection)
+     */
+    public Boolean saveAll(@NotNull Collection<V> entities) {
+        return awaitResult(saveAllAsync(entities));
+    }
 
-        assert where != null;
+    /**
+     * Remove entities asynchronously
+     * <p>
+     * Entities are grouped by partition key, each partition is removed by UNLOGGED batch (split by {@link #getMaxBatchSize()} statements) and no more than
+     * {@link #getMaxInFlightBatches()} batches are executed concurrently
+     *
+     * @param entities Target entities
+     *
+     * @return Operation status result, True if all statements were applied
+     */
+    public ListenableFuture<Boolean> removeAllAsync(@NotNull Collection<V> entities) {
+        Timer timer = getMetrics().getTimer(MetricsType.DATA_PROVIDER_REMOVE_ALL.name());
 
-        PreparedStatement prepare = getCassandraClient().prepare(getEntityMetadata().getKeyspace(), where.getQueryString());
-        prepare.setConsistencyLevel(getWriteConsistencyLevel());
+        List<EntityChangeEvent> changes = buildChanges(EntityChangeEvent.ChangeType.REMOVE, entities);
 
-        BoundStatement boundStatement = new BoundStatement(prepare);
+        ListenableFuture<Boolean> resultFuture = publishOnSuccess(changes, executeBatches(entities, getStatementPlan()::bindDelete));
 
-        for (int i = 0; i < primaryKeysSize; i++) {
-            Optional<PrimaryKeyMetadata> primaryKey = getEntityMetadata().getPrimaryKey(i);
+        monitorFuture(timer, resultFuture);
 
-            if (!primaryKey.isPresent()) {
-                throw new QueryException(String.format("Invalid primary key index: %d", i));
-            }
+        return resultFuture;
+    }
 
-            PrimaryKeyMetadata primaryKeyMetadata = primaryKey.get();
+    /**
+     * Remove entities
+     *
+     * @param entities Target entities
+     *
+     * @return Operation status result, True if all statements were applied
+     *
+     * @see #removeAllAsync(Collection)
+     */
+    public Boolean removeAll(@NotNull Collection<V> entities) {
+        return awaitResult(removeAllAsync(entities));
+    }
 
-            Object value = primaryKeyMetadata.readValue(entity);
+    /**
+     * Remove entity asynchronously
+     *
+     * @param entity Target entity
+     *
+     * @return Operation status result
+     */
+    public ListenableFuture<Boolean> removeAsync(@NotNull V entity) {
+        Timer removeAsyncTimer = METRICS.getTimer(MetricsType.DATA_PROVIDER_REMOVE.name());
 
-            boundStatement.setBytesUnsafe(i, primaryKeyMetadata.serialize(value));
-        }
+        BoundStatement boundStatement = getStatementPlan().bindDelete(entity);
 
-        ResultSetFuture resultSetFuture = getCassandraClient().executeAsync(boundStatement);
+        List<EntityChangeEvent> changes = buildChanges(EntityChangeEvent.ChangeType.REMOVE, Collections.singleton(entity));
 
-        ListenableFuture<Boolean> transform = Futures.transform(resultSetFuture, ResultSet::wasApplied, getExecutorService());
+        ListenableFuture<Boolean> transform = publishOnSuccess(changes, executeWriteAsync(boundStatement));
 
         monitorFuture(removeAsyncTimer, transform);
 
@@ -285,56 +325,149 @@ public class DataProvider<V> {
         return resultFuture;
     }
 
-    public String getKeyspace() {
-        return getEntityMetadata().getKeyspace();
-    }
+    /**
+     * Get records by several primary keys asynchronously
+     * <p>
+     * Full keys that differ only by last clustering key are selected by single query with IN clause (split by {@link #getMaxInValues()} values), other keys
+     * are selected by separate queries. Every query is routed to partition replica and no more than {@link #getMaxInFlightReads()} queries are executed
+     * concurrently
+     *
+     * @param keys Primary keys of each record, partial keys are allowed as in {@link #findAsync(Object...)}
+     *
+     * @return Found records, records that were not found are not included into result
+     */
+    public ListenableFuture<List<V>> findAllAsync(@NotNull Collection<Object[]> keys) {
+        Timer timer = getMetrics().getTimer(MetricsType.DATA_PROVIDER_FIND_ALL.name());
 
-    public <UserCallback extends Consumer<V>> int load(long start, long end, UserCallback consumer) {
-        Timer timer = getMetrics().getTimer("data_provider.load");
+        List<Statement> statements = new ArrayList<>();
 
-        Select select = QueryBuilder.select()
-                                    .all()
-                                    .from(getEntityMetadata().getTableName());
+        Map<List<Object>, Set<Object>> lastKeysByPrefix = new LinkedHashMap<>();
 
-        String[] primaryKeys = new String[getEntityMetadata().getPartitionKeySize()];
+        int primaryKeysSize = getStatementPlan().getPrimaryKeys().length;
 
-        for (int i = 0; i < getEntityMetadata().getPartitionKeySize(); i++) {
-            Optional<PrimaryKeyMetadata> primaryKey = getEntityMetadata().getPrimaryKey(i);
+        for (Object[] key : keys) {
+            if (key.length == primaryKeysSize && getStatementPlan().isSelectInSupported()) {
+                List<Object> prefix = Arrays.asList(key).subList(0, primaryKeysSize - 1);
 
-            if (!primaryKey.isPresent()) {
-                throw new QueryException(String.format("Invalid primary key index: %d", i));
+                lastKeysByPrefix.computeIfAbsent(prefix, k -> new LinkedHashSet<>())
+                                .add(key[primaryKeysSize - 1]);
+            } else {
+                statements.add(getFetchBoundStatement(Arrays.asList(key)));
             }
+        }
+
+        int maxInValues = Math.max(getMaxInValues(), 1);
+
+        for (Map.Entry<List<Object>, Set<Object>> entry : lastKeysByPrefix.entrySet()) {
+            List<Object> lastKeys = new ArrayList<>(entry.getValue());
+
+            if (lastKeys.size() == 1) {
+                List<Object> fullKey = new ArrayList<>(entry.getKey());
+                fullKey.add(lastKeys.get(0));
+
+                statements.add(getFetchBoundStatement(fullKey));
 
-            PrimaryKeyMetadata primaryKeyMetadata = primaryKey.get();
+                continue;
+            }
 
-            String columnName = primaryKeyMetadata.getName();
+            for (int from = 0; from < lastKeys.size(); from += maxInValues) {
+                BoundStatement boundStatement = getStatementPlan().bindSelectIn(entry.getKey(), lastKeys.subList(from, Math.min(from + maxInValues, lastKeys.size())));
+                boundStatement.setFetchSize(getEntityMetadata().getMaxFetchSize());
 
-            primaryKeys[i] = columnName;
+                statements.add(boundStatement);
+            }
         }
 
+        ListenableFuture<List<List<V>>> resultsFuture = BoundedStatementExecutor.execute(
+                getCassandraClient(),
+                getEntityMetadata().getKeyspace(),
+                statements,
+                getMaxInFlightReads(),
+                (ResultSet resultSet) -> {
+                    List<V> result = new ArrayList<>();
 
-        Select.Where where = select.where(QueryBuilder.gt(QueryBuilder.token(primaryKeys), QueryBuilder.bindMarker()))
-                                   .and(QueryBuilder.lte(QueryBuilder.token(primaryKeys), QueryBuilder.bindMarker()));
+                    fetchResultSet(resultSet, result::add);
 
+                    return result;
+                },
+                getExecutorService()
+        );
 
-        Timer prepareTimer = getMetrics().getTimer("data_provider.load.prepare");
+        ListenableFuture<List<V>> resultFuture = Futures.transform(resultsFuture, (List<List<V>> results) -> {
+            List<V> result = new ArrayList<>();
 
-        PreparedStatement prepare = getCassandraClient().prepare(getEntityMetadata().getKeyspace(), where.getQueryString());
+            results.forEach(result::addAll);
 
-        prepareTimer.stop();
+            return result;
+        });
 
-        LOGGER.debug("Complete to prepare stmt in {}", prepareTimer);
+        monitorFuture(timer, resultFuture);
 
-        Timer executeTimer = getMetrics().getTimer("data_provider.load.execute");
+        return resultFuture;
+    }
 
-        BoundStatement boundStatement = new BoundStatement(prepare);
-        boundStatement.bind(start, end);
+    /**
+     * Get records by specified keys lazily
+     * <p>
+     * Query is executed immediately, records are mapped while iterator is consumed and next page is prefetched asynchronously when current page is
+     * almost consumed (see {@link #getPrefetchThreshold()}), so iteration over big partition requires memory only for two pages
+     *
+     * @param keys Primary keys
+     *
+     * @return Records iterator
+     */
+    public Iterator<V> iterator(Object... keys) {
+        Timer timer = getMetrics().getTimer(MetricsType.DATA_PROVIDER_FIND.name());
 
-        boundStatement.setFetchSize(getEntityMetadata().getMaxFetchSize());
-        boundStatement.setConsistencyLevel(ConsistencyLevel.ONE);
+        BoundStatement boundStatement = getFetchBoundStatement(Arrays.asList(keys));
 
         ResultSet resultSet = getCassandraClient().execute(boundStatement);
 
+        timer.stop();
+
+        return new ResultSetIterator<>(resultSet, this::mapToObject, getPrefetchThreshold());
+    }
+
+    /**
+     * Get records by specified keys as lazy sequential stream
+     *
+     * @param keys Primary keys
+     *
+     * @return Records stream
+     *
+     * @see #iterator(Object...)
+     */
+    public Stream<V> stream(Object... keys) {
+        return toStream(iterator(keys));
+    }
+
+    /**
+     * Get records in token range (start, end] as lazy sequential stream
+     *
+     * @param start Start token (exclusive)
+     * @param end   End token (inclusive)
+     *
+     * @return Records stream
+     *
+     * @see #iterator(Object...)
+     */
+    public Stream<V> streamTokenRange(long start, long end) {
+        ResultSet resultSet = getCassandraClient().execute(getTokenRangeBoundStatement(start, end));
+
+        return toStream(new ResultSetIterator<>(resultSet, this::mapToObject, getPrefetchThreshold()));
+    }
+
+    public String getKeyspace() {
+        return getEntityMetadata().getKeyspace();
+    }
+
+    public <UserCallback extends Consumer<V>> int load(long start, long end, UserCallback consumer) {
+        Timer timer = getMetrics().getTimer("data_provider.load");
+
+        Timer executeTimer = getMetrics().getTimer("data_provider.load.execute");
+
+        ResultSet resultSet = getCassandraClient().execute(getTokenRangeBoundStatement(start, end));
+
         executeTimer.stop();
 
         LOGGER.debug("Complete to execute stmt in {}", executeTimer);
@@ -349,11 +482,153 @@ public class DataProvider<V> {
         return loadedItems;
     }
 
+    /**
+     * Load records in token range (start, end] with pipelined page fetching and parallel mapping
+     * <p>
+     * When page is received next page is requested asynchronously and rows of received page are mapped on provider ExecutorService by
+     * {@link #getMappingParallelism()} tasks, so network I/O and mapping of rows are overlapped. Must not be invoked from provider ExecutorService threads.
+     *
+     * @param start         Start token (exclusive)
+     * @param end           End token (inclusive)
+     * @param consumer      Records consumer, if order is not preserved it's invoked concurrently from ExecutorService threads and must be thread safe
+     * @param preserveOrder If True records are passed to consumer from current thread in result order
+     *
+     * @return Number of loaded rows
+     */
+    public int loadPipelined(long start, long end, @NotNull Consumer<V> consumer, boolean preserveOrder) {
+        Timer timer = getMetrics().getTimer("data_provider.load_pipelined");
+
+        ResultSet resultSet = getCassandraClient().execute(getTokenRangeBoundStatement(start, end));
+
+        int mappingParallelism = Math.max(getMappingParallelism(), 1);
+
+        int loadedItems = 0;
+
+        while (!resultSet.isExhausted()) {
+            int available = resultSet.getAvailableWithoutFetching();
+
+            List<Row> rows = new ArrayList<>(available);
+
+            for (int i = 0; i < available; i++) {
+                rows.add(resultSet.one());
+            }
+
+            if (!resultSet.isFullyFetched()) {
+                resultSet.fetchMoreResults();
+            }
+
+            int chunkSize = (rows.size() + mappingParallelism - 1) / mappingParallelism;
+
+            List<Future<List<V>>> chunkFutures = new ArrayList<>(mappingParallelism);
+
+            for (int from = 0; from < rows.size(); from += chunkSize) {
+                List<Row> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+
+                chunkFutures.add(getExecutorService().submit(() -> mapRows(chunk, preserveOrder ? null : consumer)));
+            }
+
+            for (Future<List<V>> chunkFuture : chunkFutures) {
+                List<V> entities = awaitResult(chunkFuture);
+
+                if (preserveOrder) {
+                    entities.forEach(consumer);
+                }
+            }
+
+            loadedItems += rows.size();
+        }
+
+        timer.stop();
+
+        LOGGER.debug("Complete pipelined load data in range ({},{}] in {}", start, end, timer);
+
+        return loadedItems;
+    }
+
     @NotNull
     protected Metrics getMetrics() {
         return METRICS;
     }
 
+    /**
+     * Max number of statements in one batch for {@link #saveAllAsync(Collection)} and {@link #removeAllAsync(Collection)}. Bigger partitions will be split
+     * into several batches.
+     *
+     * @return Max batch size
+     */
+    protected int getMaxBatchSize() {
+        return DEFAULT_MAX_BATCH_SIZE;
+    }
+
+    /**
+     * Max number of values in IN clause of one select for {@link #findAllAsync(Collection)}. More values of the same key prefix will be selected by several
+     * queries
+     *
+     * @return Max number of IN values
+     */
+    protected int getMaxInValues() {
+        return DEFAULT_MAX_IN_VALUES;
+    }
+
+    /**
+     * Window in which single entity writes ({@link #saveAsync(Object)}, {@link #save(Object)}, {@link #removeAsync(Object)}) of one partition are coalesced
+     * into single UNLOGGED batch, batch is also flushed when it reach {@link #getMaxBatchSize()} statements. Coalescing is disabled by default.
+     * <p>
+     * Method is invoked from constructor so implementation must not depend on subclass state
+     *
+     * @return Window in microseconds or 0 if writes must not be coalesced
+     */
+    protected long getWriteCoalescingWindowMicros() {
+        return 0;
+    }
+
+    /**
+     * Max number of concurrently executed batches for {@link #saveAllAsync(Collection)} and {@link #removeAllAsync(Collection)}
+     *
+     * @return Max in flight batches
+     */
+    protected int getMaxInFlightBatches() {
+        return DEFAULT_MAX_IN_FLIGHT_BATCHES;
+    }
+
+    /**
+     * Number of tasks that map rows of one page in {@link #loadPipelined(long, long, Consumer, boolean)}
+     *
+     * @return Mapping parallelism, by default number of available processors
+     */
+    protected int getMappingParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Number of buffered rows on which next page of result will be requested asynchronously
+     *
+     * @return Prefetch threshold, by default half of fetch size
+     */
+    protected int getPrefetchThreshold() {
+        return getEntityMetadata().getMaxFetchSize() / 2;
+    }
+
+    /**
+     * Max number of concurrently executed queries for {@link #findAllAsync(Collection)}
+     *
+     * @return Max in flight queries
+     */
+    protected int getMaxInFlightReads() {
+        return DEFAULT_MAX_IN_FLIGHT_READS;
+    }
+
+    /**
+     * Feed on which changes are published after they are written to persistence storage, so caches of entity on other nodes or services can invalidate
+     * changed entries. Publishing is disabled by default
+     *
+     * @return Change feed or null if changes must not be published
+     */
+    @Nullable
+    protected EntityChangeFeed getChangeFeed() {
+        return null;
+    }
+
     @NotNull
     protected CassandraClient getCassandraClient() {
         return cassandraClient.create();
@@ -422,8 +697,7 @@ public class DataProvider<V> {
         Timer fetchResultSetTimer = getMetrics().getTimer("data_provider.load.fetch");
 
         while (iterator.hasNext()) {
-            if (resultSet.getAvailableWithoutFetching() == entityMetadata.getMaxFetchSize() && !resultSet.isFullyFetched())
-                resultSet.fetchMoreResults();
+            ResultSetIterator.prefetch(resultSet, getPrefetchThreshold());
 
             METRICS.getCounter(MetricsType.DATA_PROVIDER_LOAD_BY_TOKEN_RANGE.name()).inc();
 
@@ -446,140 +720,260 @@ public class DataProvider<V> {
         return loadedItems;
     }
 
+    /**
+     * Map rows to entities
+     *
+     * @param rows     Rows
+     * @param consumer Consumer to which entities will be passed or null if entities must be returned
+     *
+     * @return Mapped entities or empty list if consumer was provided
+     */
     @NotNull
-    private BoundStatement getFetchBoundStatement(List<Object> keys) {
-        BoundStatement boundStatement;
-
-        Select select = QueryBuilder.select()
-                                    .all()
-                                    .from(getEntityMetadata().getTableName());
+    private List<V> mapRows(@NotNull List<Row> rows, @Nullable Consumer<V> consumer) {
+        List<V> entities = consumer == null ? new ArrayList<>(rows.size()) : Collections.emptyList();
 
-        int parametersLength = keys.size();
+        for (Row row : rows) {
+            METRICS.getCounter(MetricsType.DATA_PROVIDER_LOAD_BY_TOKEN_RANGE.name()).inc();
 
-        if (parametersLength > 0) {
+            V instance = mapToObject(row);
 
-            if (parametersLength < getEntityMetadata().getMinPrimaryKeys() || parametersLength > getEntityMetadata().getPrimaryKeysSize()) {
-                throw new QueryException(String.format("Invalid number of parameters at least composite keys must me provided. Expected: %d Actual: %d", getEntityMetadata().getPartitionKeySize(), parametersLength));
+            if (instance == null) {
+                continue;
             }
 
-            Select.Where where = null;
+            if (consumer == null) {
+                entities.add(instance);
+            } else {
+                consumer.accept(instance);
+            }
+        }
 
-            for (int i = 0; i < parametersLength; i++) {
-                Optional<PrimaryKeyMetadata> primaryKey = getEntityMetadata().getPrimaryKey(i);
+        return entities;
+    }
 
-                if (!primaryKey.isPresent()) {
-                    throw new QueryException(String.format("Invalid primary key index: %d", i));
-                }
+    @NotNull
+    private BoundStatement getTokenRangeBoundStatement(long start, long end) {
+        BoundStatement boundStatement = new BoundStatement(getStatementPlan().getTokenRangeStatement());
+        boundStatement.bind(start, end);
 
-                PrimaryKeyMetadata primaryKeyMetadata = primaryKey.get();
+        boundStatement.setFetchSize(getEntityMetadata().getMaxFetchSize());
+        boundStatement.setConsistencyLevel(ConsistencyLevel.ONE);
 
-                String columnName = primaryKeyMetadata.getName();
+        return boundStatement;
+    }
 
-                if (i == 0) {
-                    where = select.where(QueryBuilder.eq(columnName, QueryBuilder.bindMarker()));
-                } else {
-                    where = where.and(QueryBuilder.eq(columnName, QueryBuilder.bindMarker()));
-                }
-            }
+    @NotNull
+    private static <T> Stream<T> toStream(@NotNull Iterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
 
-            assert where != null;
+    @NotNull
+    private BoundStatement getFetchBoundStatement(List<Object> keys) {
+        BoundStatement boundStatement = getStatementPlan().bindSelect(keys);
 
-            PreparedStatement prepare = getCassandraClient().prepare(getEntityMetadata().getKeyspace(), where.getQueryString());
-            prepare.setConsistencyLevel(getReadConsistencyLevel());
+        boundStatement.setFetchSize(getEntityMetadata().getMaxFetchSize());
 
-            boundStatement = new BoundStatement(prepare);
+        return boundStatement;
+    }
 
-            bindPrimaryKeysParameters(keys, boundStatement);
+    /**
+     * Build change events of entities if changes are published
+     *
+     * @param changeType Change type
+     * @param entities   Changed entities
+     *
+     * @return Change events or null if change feed is disabled
+     */
+    @Nullable
+    private List<EntityChangeEvent> buildChanges(@NotNull EntityChangeEvent.ChangeType changeType, @NotNull Collection<V> entities) {
+        if (getChangeFeed() == null) {
+            return null;
+        }
 
-        } else {
-            PreparedStatement statement = getCassandraClient().prepare(getEntityMetadata().getKeyspace(), select.getQueryString());
-            statement.setConsistencyLevel(getReadConsistencyLevel());
+        List<EntityChangeEvent> changes = new ArrayList<>(entities.size());
 
-            boundStatement = new BoundStatement(statement);
+        for (V entity : entities) {
+            changes.add(new EntityChangeEvent(getEntityClass(), changeType, buildEntityKey(entity)));
         }
 
-        boundStatement.setFetchSize(getEntityMetadata().getMaxFetchSize());
-        boundStatement.setConsistencyLevel(getEntityMetadata().getReadConsistencyLevel());
-        return boundStatement;
-    }
-
-    private ConsistencyLevel getReadConsistencyLevel() {
-        return getEntityMetadata().getReadConsistencyLevel();
+        return changes;
     }
 
-    private ConsistencyLevel getWriteConsistencyLevel() {
-        return getEntityMetadata().getWriteConsistencyLevel();
-    }
+    private void publish(@Nullable List<EntityChangeEvent> changes) {
+        EntityChangeFeed changeFeed = getChangeFeed();
 
-    @NotNull
-    private EntityMetadata getEntityMetadata() {
-        return entityMetadata;
+        if (changes != null && changeFeed != null) {
+            changeFeed.publish(getEntityClass(), changes);
+        }
     }
 
+    /**
+     * Publish changes when write is successfully completed
+     *
+     * @param changes Change events or null if change feed is disabled
+     * @param future  Write future
+     *
+     * @return Write future
+     */
     @NotNull
-    private ExecutorService getExecutorService() {
-        return executorService;
-    }
+    private ListenableFuture<Boolean> publishOnSuccess(@Nullable List<EntityChangeEvent> changes, @NotNull ListenableFuture<Boolean> future) {
+        if (changes == null) {
+            return future;
+        }
 
-    private long buildHashCode(List<Object> keys) {
-        try {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            ObjectOutputStream objectOutputStream = new ObjectOutputStream(out);
-
-            for (Object key : keys) {
-                if (key instanceof ByteBuffer) {
-                    objectOutputStream.write(((ByteBuffer) key).array());
-                } else {
-                    objectOutputStream.writeObject(key);
-                }
+        Futures.addCallback(future, new FutureCallback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean result) {
+                publish(changes);
             }
 
-            return HASH_FUNCTION.hashBytes(out.toByteArray()).asLong();
+            @Override
+            public void onFailure(Throwable t) {
+                LOGGER.debug("Changes are not published because write has failed", t);
+            }
+        }, getExecutorService());
 
-        } catch (IOException e) {
-            LOGGER.warn("Can't build cache key", e);
+        return future;
+    }
 
-            throw new CanNotBuildEntryCacheKey(getEntityClass(), e);
+    /**
+     * Execute single entity write statement directly or through write coalescer if it's enabled
+     *
+     * @param boundStatement Insert or delete statement
+     *
+     * @return Operation status result
+     */
+    private ListenableFuture<Boolean> executeWriteAsync(@NotNull BoundStatement boundStatement) {
+        if (writeCoalescer != null) {
+            return writeCoalescer.submit(boundStatement);
         }
+
+        ResultSetFuture resultSetFuture = getCassandraClient().executeAsync(boundStatement);
+
+        return Futures.transform(resultSetFuture, ResultSet::wasApplied, getExecutorService());
     }
 
-    private void bindPrimaryKeysParameters(@NotNull List<Object> keys, @NotNull BoundStatement boundStatement) {
-        for (int i = 0; i < keys.size(); i++) {
-            Optional<PrimaryKeyMetadata> primaryKey = getEntityMetadata().getPrimaryKey(i);
+    /**
+     * Bind statements for entities, group them by partition key into UNLOGGED batches and execute batches with limited concurrency
+     *
+     * @param entities Entities or entity keys
+     * @param binder   Function that create BoundStatement for entity
+     * @param <T>      Entity or entity key type
+     *
+     * @return Operation status result, True if all statements were applied
+     */
+    private <T> ListenableFuture<Boolean> executeBatches(@NotNull Collection<T> entities, @NotNull Function<T, BoundStatement> binder) {
+        Map<List<ByteBuffer>, List<BoundStatement>> statementsByPartition = new LinkedHashMap<>();
+
+        for (T entity : entities) {
+            BoundStatement boundStatement = binder.apply(entity);
+
+            statementsByPartition.computeIfAbsent(getStatementPlan().getPartitionKey(boundStatement), key -> new ArrayList<>())
+                                 .add(boundStatement);
+        }
+
+        int maxBatchSize = Math.max(getMaxBatchSize(), 1);
+
+        List<Statement> batches = new ArrayList<>();
+
+        for (List<BoundStatement> partitionStatements : statementsByPartition.values()) {
+            for (int from = 0; from < partitionStatements.size(); from += maxBatchSize) {
+                List<BoundStatement> batchStatements = partitionStatements.subList(from, Math.min(from + maxBatchSize, partitionStatements.size()));
 
-            if (!primaryKey.isPresent()) {
-                throw new QueryException(String.format("Invalid primary key index: %d", i));
+                batches.add(createBatch(batchStatements));
             }
+        }
+
+        ListenableFuture<List<Boolean>> resultsFuture = BoundedStatementExecutor.execute(
+                getCassandraClient(),
+                getEntityMetadata().getKeyspace(),
+                batches,
+                getMaxInFlightBatches(),
+                ResultSet::wasApplied,
+                getExecutorService()
+        );
 
-            PrimaryKeyMetadata primaryKeyMetadata = primaryKey.get();
+        return Futures.transform(resultsFuture, (List<Boolean> results) -> !results.contains(false));
+    }
 
-            boundStatement.setBytesUnsafe(i, primaryKeyMetadata.serialize(keys.get(i)));
+    /**
+     * Create UNLOGGED batch from statements of one partition or return statement as is if there is only one statement
+     *
+     * @param statements Statements of one partition
+     *
+     * @return Statement that must be executed
+     */
+    @NotNull
+    private Statement createBatch(@NotNull List<BoundStatement> statements) {
+        if (statements.size() == 1) {
+            return statements.get(0);
         }
+
+        BatchStatement batchStatement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        batchStatement.addAll(statements);
+        batchStatement.setConsistencyLevel(getEntityMetadata().getWriteConsistencyLevel());
+
+        return batchStatement;
     }
 
     /**
-     * Create BoundStatement from PreparedStatement and bind parameter values from entity
+     * Wait for future result and rethrow unchecked cause of failure
+     *
+     * @param future Future
+     * @param <T>    Result type
      *
-     * @param prepare PreparedStatement
-     * @param entity  Entity from which will be read data
-     * @param columns Bind columns
+     * @return Future result
      *
-     * @return BoundStatement
+     * @throws QueryException if future was completed with checked exception
      */
+    static <T> T awaitResult(@NotNull Future<T> future) {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause());
+
+            throw new QueryException(e.getCause());
+        }
+    }
+
     @NotNull
-    private BoundStatement createBoundStatement(@NotNull PreparedStatement prepare, @NotNull V entity, @NotNull List<ColumnMetadata> columns) {
-        BoundStatement boundStatement = new BoundStatement(prepare);
-        boundStatement.setConsistencyLevel(getEntityMetadata().getWriteConsistencyLevel());
+    private EntityMetadata getEntityMetadata() {
+        return entityMetadata;
+    }
+
+    @NotNull
+    private StatementPlan getStatementPlan() {
+        return statementPlan;
+    }
 
-        for (int i = 0; i < columns.size(); i++) {
-            ColumnMetadata column = columns.get(i);
+    @NotNull
+    ExecutorService getExecutorService() {
+        return executorService;
+    }
 
-            Object value = column.readValue(entity);
+    private long buildHashCode(List<Object> keys) {
+        try {
+            return KeyHasher.hash(getStatementPlan().getPrimaryKeys(), keys);
+        } catch (IllegalArgumentException | InvalidTypeException e) {
+            LOGGER.warn("Can't build cache key", e);
 
-            boundStatement.setBytesUnsafe(i, column.serialize(value));
+            throw new CanNotBuildEntryCacheKey(getEntityClass(), e);
         }
+    }
 
-        return boundStatement;
+    @NotNull
+    private EntityKey buildEntityKey(List<Object> keys) {
+        Timer timer = getMetrics().getTimer(MetricsType.DATA_PROVIDER_CREATE_KEY.name());
+
+        try {
+            return EntityKey.build(getStatementPlan().getPrimaryKeys(), keys, getStatementPlan().getPartitionKeySize());
+        } catch (IllegalArgumentException | InvalidTypeException e) {
+            LOGGER.warn("Can't build cache key", e);
+
+            throw new CanNotBuildEntryCacheKey(getEntityClass(), e);
+        } finally {
+            timer.stop();
+        }
     }
 
     /**
@@ -598,8 +992,11 @@ public class DataProvider<V> {
     private enum MetricsType {
         DATA_PROVIDER_FIND_ONE,
         DATA_PROVIDER_SAVE,
+        DATA_PROVIDER_SAVE_ALL,
         DATA_PROVIDER_REMOVE,
+        DATA_PROVIDER_REMOVE_ALL,
         DATA_PROVIDER_FIND,
+        DATA_PROVIDER_FIND_ALL,
         DATA_PROVIDER_CREATE_KEY,
         DATA_PROVIDER_LOAD_BY_TOKEN_RANGE;
     }
@@ -644,22 +1041,158 @@ public class DataProvider<V> {
         return hashCode;
     }
 
+    /**
+     * Remove entities by binary keys asynchronously
+     *
+     * @param keys Full entity keys
+     *
+     * @return Operation status result, True if all statements were applied
+     *
+     * @see #removeAllAsync(Collection)
+     */
+    ListenableFuture<Boolean> removeAllByKeysAsync(@NotNull Collection<EntityKey> keys) {
+        Timer timer = getMetrics().getTimer(MetricsType.DATA_PROVIDER_REMOVE_ALL.name());
+
+        List<EntityChangeEvent> changes = null;
+
+        if (getChangeFeed() != null) {
+            changes = new ArrayList<>(keys.size());
+
+            for (EntityKey key : keys) {
+                changes.add(new EntityChangeEvent(getEntityClass(), EntityChangeEvent.ChangeType.REMOVE, key));
+            }
+        }
+
+        ListenableFuture<Boolean> resultFuture = publishOnSuccess(changes, executeBatches(keys, (EntityKey key) -> getStatementPlan().bindDeleteByKey(key.getValues())));
+
+        monitorFuture(timer, resultFuture);
+
+        return resultFuture;
+    }
+
+    /**
+     * Remove entities by binary keys
+     *
+     * @param keys Full entity keys
+     *
+     * @return Operation status result, True if all statements were applied
+     */
+    Boolean removeAllByKeys(@NotNull Collection<EntityKey> keys) {
+        return awaitResult(removeAllByKeysAsync(keys));
+    }
+
+    /**
+     * Get primary key values from binary key
+     *
+     * @param key Entity key
+     *
+     * @return Primary key values in primary key order
+     */
     @NotNull
-    List<Object> getPrimaryKeys(@NotNull V entity) {
-        int primaryKeysSize = getEntityMetadata().getPrimaryKeysSize();
+    List<Object> getPrimaryKeys(@NotNull EntityKey key) {
+        PrimaryKeyMetadata[] primaryKeys = getStatementPlan().getPrimaryKeys();
 
-        List<Object> keys = new ArrayList<>();
+        List<ByteBuffer> values = key.getValues();
+
+        List<Object> keys = new ArrayList<>(values.size());
+
+        for (int i = 0; i < values.size(); i++) {
+            keys.add(primaryKeys[i].deserialize(values.get(i)));
+        }
+
+        return keys;
+    }
 
-        for (int i = 0; i < primaryKeysSize; i++) {
-            Optional<PrimaryKeyMetadata> primaryKey = getEntityMetadata().getPrimaryKey(i);
+    /**
+     * Build binary cache key for entity
+     *
+     * @param entity Input entity
+     *
+     * @return Cache key
+     */
+    @NotNull
+    EntityKey buildEntityKey(@NotNull V entity) {
+        return buildEntityKey(getPrimaryKeys(entity));
+    }
 
-            if (primaryKey.isPresent()) {
-                PrimaryKeyMetadata primaryKeyMetadata = primaryKey.get();
+    /**
+     * Build binary cache key
+     *
+     * @param keys Entity keys
+     *
+     * @return Cache key
+     */
+    @NotNull
+    final EntityKey buildEntityKey(Object... keys) {
+        return buildEntityKey(Arrays.asList(keys));
+    }
 
-                Object value = primaryKeyMetadata.readValue(entity);
-                keys.add(value);
+    /**
+     * Get column metadata by entity property name
+     *
+     * @param propertyName Entity property (field) name
+     *
+     * @return Column metadata or null if property is not column
+     */
+    @Nullable
+    ColumnMetadata getColumnMetadata(@NotNull String propertyName) {
+        for (ColumnMetadata columnMetadata : getEntityMetadata().getFieldMetaData()) {
+            if (columnMetadata.getPropertyName().equals(propertyName)) {
+                return columnMetadata;
             }
         }
+
+        return null;
+    }
+
+    /**
+     * Get number of partition keys
+     *
+     * @return Number of partition keys
+     */
+    int getPartitionKeySize() {
+        return getStatementPlan().getPartitionKeySize();
+    }
+
+    /**
+     * Get time to live of inserted rows
+     *
+     * @return TTL in seconds or 0 if rows never expire
+     */
+    int getTtl() {
+        return getEntityMetadata().getTtl();
+    }
+
+    /**
+     * Get metadata of entity write timestamp field
+     *
+     * @return Write timestamp metadata or null if entity has no write timestamp field
+     */
+    @Nullable
+    WriteTimestampMetadata getWriteTimestampMetadata() {
+        return getEntityMetadata().getWriteTimestampMetadata();
+    }
+
+    /**
+     * Get number of primary keys
+     *
+     * @return Number of primary keys
+     */
+    int getPrimaryKeysSize() {
+        return getStatementPlan().getPrimaryKeys().length;
+    }
+
+    @NotNull
+    List<Object> getPrimaryKeys(@NotNull V entity) {
+        PrimaryKeyMetadata[] primaryKeys = getStatementPlan().getPrimaryKeys();
+
+        List<Object> keys = new ArrayList<>(primaryKeys.length);
+
+        for (PrimaryKeyMetadata primaryKeyMetadata : primaryKeys) {
+            Object value = primaryKeyMetadata.readValue(entity);
+            keys.add(value);
+        }
+
         return keys;
     }
 
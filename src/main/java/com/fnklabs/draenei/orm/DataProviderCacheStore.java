@@ -0,0 +1,186 @@
+package com.fnklabs.draenei.orm;
+
+import com.fnklabs.metrics.Metrics;
+import com.fnklabs.metrics.MetricsFactory;
+import com.fnklabs.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.ignite.cache.store.CacheStoreAdapter;
+import org.apache.ignite.lifecycle.LifecycleAware;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.cache.Cache;
+import javax.cache.integration.CacheLoaderException;
+import javax.cache.integration.CacheWriterException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cassandra backed Ignite cache store that persist cache entries through {@link DataProvider}
+ * <p>
+ * In write-behind mode Ignite keeps only the latest value of every key until flush, so hot keys are written once per flush interval. Flushed entries are
+ * written by {@link DataProvider#saveAll(Collection)} and removed by {@link DataProvider#removeAllByKeys(Collection)}, i.e. by partition batches. Store
+ * works only with {@link EntityKey} cache keys because entity must be removed by key.
+ * <p>
+ * Statement results are processed by store own thread pool (not by Cassandra driver I/O threads), pool is shut down when store is stopped.
+ *
+ * @param <Entry> Entity class type
+ */
+public class DataProviderCacheStore<Entry> extends CacheStoreAdapter<Object, Entry> implements LifecycleAware {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataProviderCacheStore.class);
+
+    private static final Metrics METRICS = MetricsFactory.getMetrics();
+
+    @NotNull
+    private final DataProvider<Entry> dataProvider;
+
+    /**
+     * Executor that process statement results of data provider
+     */
+    @NotNull
+    private final ExecutorService executorService;
+
+    /**
+     * @param entityClass            Entity class
+     * @param cassandraClientFactory Cassandra client factory
+     */
+    public DataProviderCacheStore(@NotNull Class<Entry> entityClass, @NotNull CassandraClientFactory cassandraClientFactory) {
+        this.executorService = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                new ThreadFactoryBuilder().setDaemon(true)
+                                          .setNameFormat(String.format("draenei-cache-store-%s-%%d", entityClass.getSimpleName()))
+                                          .build()
+        );
+        this.dataProvider = new DataProvider<>(entityClass, cassandraClientFactory, executorService);
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        executorService.shutdown();
+    }
+
+    @Override
+    public Entry load(Object key) throws CacheLoaderException {
+        if (!(key instanceof EntityKey)) {
+            return null;
+        }
+
+        Timer timer = METRICS.getTimer(MetricsType.CACHE_STORE_LOAD.name());
+
+        try {
+            List<Object> primaryKeys = dataProvider.getPrimaryKeys((EntityKey) key);
+
+            return dataProvider.findOne(primaryKeys.toArray());
+        } catch (RuntimeException e) {
+            throw new CacheLoaderException(e);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Override
+    public void write(Cache.Entry<?, ? extends Entry> entry) throws CacheWriterException {
+        Timer timer = METRICS.getTimer(MetricsType.CACHE_STORE_WRITE.name());
+
+        try {
+            dataProvider.save(entry.getValue());
+        } catch (RuntimeException e) {
+            throw new CacheWriterException(e);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Override
+    public void writeAll(Collection<Cache.Entry<?, ? extends Entry>> entries) throws CacheWriterException {
+        Timer timer = METRICS.getTimer(MetricsType.CACHE_STORE_WRITE_ALL.name());
+
+        List<Entry> values = new ArrayList<>(entries.size());
+
+        for (Cache.Entry<?, ? extends Entry> entry : entries) {
+            values.add(entry.getValue());
+        }
+
+        try {
+            dataProvider.saveAll(values);
+
+            METRICS.getCounter(MetricsType.CACHE_STORE_WRITTEN_ENTRIES.name()).inc(values.size());
+
+            // all entries were written
+            entries.clear();
+        } catch (RuntimeException e) {
+            throw new CacheWriterException(e);
+        } finally {
+            timer.stop();
+        }
+
+        LOGGER.debug("Flush {} entries in {}", values.size(), timer);
+    }
+
+    @Override
+    public void delete(Object key) throws CacheWriterException {
+        Timer timer = METRICS.getTimer(MetricsType.CACHE_STORE_DELETE.name());
+
+        try {
+            dataProvider.removeAllByKeys(Collections.singletonList(getEntityKey(key)));
+        } catch (RuntimeException e) {
+            throw new CacheWriterException(e);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<?> keys) throws CacheWriterException {
+        Timer timer = METRICS.getTimer(MetricsType.CACHE_STORE_DELETE_ALL.name());
+
+        List<EntityKey> entityKeys = new ArrayList<>(keys.size());
+
+        for (Object key : keys) {
+            entityKeys.add(getEntityKey(key));
+        }
+
+        try {
+            dataProvider.removeAllByKeys(entityKeys);
+
+            METRICS.getCounter(MetricsType.CACHE_STORE_DELETED_ENTRIES.name()).inc(entityKeys.size());
+
+            // all entries were removed
+            keys.clear();
+        } catch (RuntimeException e) {
+            throw new CacheWriterException(e);
+        } finally {
+            timer.stop();
+        }
+
+        LOGGER.debug("Flush {} removed entries in {}", entityKeys.size(), timer);
+    }
+
+    @NotNull
+    private static EntityKey getEntityKey(Object key) throws CacheWriterException {
+        if (key instanceof EntityKey) {
+            return (EntityKey) key;
+        }
+
+        throw new CacheWriterException(String.format("Can't remove entry by key \"%s\" binary EntityKey is required", key));
+    }
+
+    private enum MetricsType {
+        CACHE_STORE_LOAD,
+        CACHE_STORE_WRITE,
+        CACHE_STORE_WRITE_ALL,
+        CACHE_STORE_WRITTEN_ENTRIES,
+        CACHE_STORE_DELETE,
+        CACHE_STORE_DELETE_ALL,
+        CACHE_STORE_DELETED_ENTRIES
+    }
+}
@@ -0,0 +1,34 @@
+package com.fnklabs.draenei.orm;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.cache.configuration.Factory;
+
+/**
+ * Create {@link DataProviderCacheStore} instance on every node that hosts cache
+ *
+ * @param <Entry> Entity class type
+ */
+public class DataProviderCacheStoreFactory<Entry> implements Factory<DataProviderCacheStore<Entry>> {
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private final Class<Entry> entityClass;
+
+    @NotNull
+    private final CassandraClientFactory cassandraClientFactory;
+
+    /**
+     * @param entityClass            Entity class
+     * @param cassandraClientFactory Cassandra client factory, must be serializable and create client on remote nodes
+     */
+    public DataProviderCacheStoreFactory(@NotNull Class<Entry> entityClass, @NotNull CassandraClientFactory cassandraClientFactory) {
+        this.entityClass = entityClass;
+        this.cassandraClientFactory = cassandraClientFactory;
+    }
+
+    @Override
+    public DataProviderCacheStore<Entry> create() {
+        return new DataProviderCacheStore<>(entityClass, cassandraClientFactory);
+    }
+}
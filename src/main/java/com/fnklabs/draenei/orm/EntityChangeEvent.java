@@ -0,0 +1,55 @@
+package com.fnklabs.draenei.orm;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+
+/**
+ * Change of entity that was written to persistence storage, it contains only entity class and primary key so it's cheap to publish
+ */
+public final class EntityChangeEvent implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private final String entityClassName;
+
+    @NotNull
+    private final ChangeType changeType;
+
+    /**
+     * Full primary key of changed entity
+     */
+    @NotNull
+    private final EntityKey key;
+
+    EntityChangeEvent(@NotNull Class<?> entityClass, @NotNull ChangeType changeType, @NotNull EntityKey key) {
+        this.entityClassName = entityClass.getName();
+        this.changeType = changeType;
+        this.key = key;
+    }
+
+    @NotNull
+    public String getEntityClassName() {
+        return entityClassName;
+    }
+
+    @NotNull
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    @NotNull
+    public EntityKey getKey() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EntityChangeEvent{%s %s %s}", changeType, entityClassName, key);
+    }
+
+    public enum ChangeType {
+        SAVE,
+        REMOVE
+    }
+}
@@ -0,0 +1,77 @@
+package com.fnklabs.draenei.orm;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteException;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Publish changes of entities that were written through {@link DataProvider} to all cluster nodes, so caches of entity (e.g.
+ * {@link CacheableDataProvider}) can invalidate changed entries
+ * <p>
+ * Every entity class has its own topic. Changes of one write operation are sent by single message, delivery is not guaranteed: message is lost if
+ * publishing node fails or can't send it.
+ */
+public class EntityChangeFeed {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EntityChangeFeed.class);
+
+    @NotNull
+    private final Ignite ignite;
+
+    /**
+     * @param ignite Ignite instance, client node is enough for publishing
+     */
+    public EntityChangeFeed(@NotNull Ignite ignite) {
+        this.ignite = ignite;
+    }
+
+    /**
+     * Send changes of entity class to all nodes
+     *
+     * @param entityClass Entity class
+     * @param events      Changes of entities
+     */
+    public void publish(@NotNull Class<?> entityClass, @NotNull Collection<EntityChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            // cast to Object so that events are sent by one message, not by message per event
+            ignite.message().send(getTopic(entityClass), (Object) new ArrayList<>(events));
+        } catch (IgniteException e) {
+            LOGGER.warn("Can't publish entity changes", e);
+        }
+    }
+
+    /**
+     * Listen changes of entity class on current node
+     *
+     * @param entityClass Entity class
+     * @param listener    Listener that receives changes of one write operation
+     */
+    public void subscribe(@NotNull Class<?> entityClass, @NotNull Consumer<List<EntityChangeEvent>> listener) {
+        ignite.message().localListen(getTopic(entityClass), (UUID nodeId, List<EntityChangeEvent> events) -> {
+            try {
+                listener.accept(events);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Can't process entity changes", e);
+            }
+
+            return true;
+        });
+    }
+
+    @NotNull
+    private static String getTopic(@NotNull Class<?> entityClass) {
+        return String.format("draenei.changes.%s", StringUtils.lowerCase(entityClass.getName()));
+    }
+}
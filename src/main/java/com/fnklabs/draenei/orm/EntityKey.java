@@ -0,0 +1,203 @@
+package com.fnklabs.draenei.orm;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import org.apache.ignite.cache.affinity.AffinityKeyMapped;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Binary composite cache key built from serialized primary key values
+ * <p>
+ * Unlike hash of primary key it's unique for every entity. Key values are stored in Cassandra serialized form prefixed by variable length size, so key is
+ * almost as small as row key. Hash of partition key values is used as affinity key, so all entries of one Cassandra partition are located on the same node.
+ */
+public final class EntityKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final HashFunction PARTITION_HASH_FUNCTION = Hashing.murmur3_32();
+
+    /**
+     * Size prefix of null value
+     */
+    private static final int NULL_VALUE = 0;
+
+    /**
+     * Serialized key values, every value is prefixed by its size + 1 in unsigned varint format (0 means null value)
+     */
+    @NotNull
+    private final byte[] data;
+
+    /**
+     * Hash of serialized partition key values
+     */
+    @AffinityKeyMapped
+    private final int partitionHash;
+
+    /**
+     * Cached hash code
+     */
+    private transient int hashCode;
+
+    private EntityKey(@NotNull byte[] data, int partitionHash) {
+        this.data = data;
+        this.partitionHash = partitionHash;
+    }
+
+    int getPartitionHash() {
+        return partitionHash;
+    }
+
+    /**
+     * Get serialized key values
+     *
+     * @return Serialized key values in primary key order
+     */
+    @NotNull
+    List<ByteBuffer> getValues() {
+        List<ByteBuffer> values = new ArrayList<>();
+
+        int position = 0;
+
+        while (position < data.length) {
+            int size = 0;
+            int shift = 0;
+
+            byte currentByte;
+
+            do {
+                currentByte = data[position++];
+                size |= (currentByte & 0x7F) << shift;
+                shift += 7;
+            } while ((currentByte & 0x80) != 0);
+
+            if (size == NULL_VALUE) {
+                values.add(null);
+            } else {
+                values.add(ByteBuffer.wrap(data, position, size - 1).slice());
+
+                position += size - 1;
+            }
+        }
+
+        return Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        EntityKey entityKey = (EntityKey) o;
+
+        return partitionHash == entityKey.partitionHash && Arrays.equals(data, entityKey.data);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hashCode;
+
+        if (result == 0) {
+            result = 31 * partitionHash + Arrays.hashCode(data);
+
+            hashCode = result;
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EntityKey{%s}", BaseEncoding.base16().lowerCase().encode(data));
+    }
+
+    /**
+     * Build key from primary key values
+     *
+     * @param primaryKeys      Primary keys metadata in primary key order
+     * @param keys             Full or partial primary key values in primary key order
+     * @param partitionKeySize Number of partition keys
+     *
+     * @return Entity key
+     *
+     * @throws IllegalArgumentException if there are more values than primary keys
+     */
+    @NotNull
+    static EntityKey build(@NotNull PrimaryKeyMetadata[] primaryKeys, @NotNull List<Object> keys, int partitionKeySize) {
+        if (keys.size() > primaryKeys.length) {
+            throw new IllegalArgumentException(String.format("Invalid number of keys. Expected at most: %d Actual: %d", primaryKeys.length, keys.size()));
+        }
+
+        ByteBuffer[] values = new ByteBuffer[keys.size()];
+
+        int size = 0;
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = primaryKeys[i].serialize(keys.get(i));
+
+            int valueSize = values[i] == null ? 0 : values[i].remaining();
+
+            size += getVarIntSize(valueSize + 1) + valueSize;
+        }
+
+        byte[] data = new byte[size];
+
+        int position = 0;
+        int partitionDataSize = 0;
+
+        for (int i = 0; i < values.length; i++) {
+            position = writeValue(data, position, values[i]);
+
+            if (i < partitionKeySize) {
+                partitionDataSize = position;
+            }
+        }
+
+        int partitionHash = PARTITION_HASH_FUNCTION.hashBytes(data, 0, partitionDataSize).asInt();
+
+        return new EntityKey(data, partitionHash);
+    }
+
+    private static int writeValue(@NotNull byte[] data, int position, @Nullable ByteBuffer value) {
+        int valueSize = value == null ? 0 : value.remaining();
+
+        int prefix = value == null ? NULL_VALUE : valueSize + 1;
+
+        while ((prefix & ~0x7F) != 0) {
+            data[position++] = (byte) ((prefix & 0x7F) | 0x80);
+            prefix >>>= 7;
+        }
+
+        data[position++] = (byte) prefix;
+
+        if (value != null) {
+            value.duplicate().get(data, position, valueSize);
+        }
+
+        return position + valueSize;
+    }
+
+    private static int getVarIntSize(int value) {
+        int size = 1;
+
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+
+        return size;
+    }
+}
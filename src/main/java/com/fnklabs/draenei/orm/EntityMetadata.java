@@ -19,10 +19,11 @@ import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Contains entity metadata information builder from entity class
@@ -46,6 +47,11 @@ class EntityMetadata {
     @NotNull
     private final ConsistencyLevel writeConsistencyLevel;
 
+    /**
+     * Time to live of inserted rows in seconds or 0 if rows never expire
+     */
+    private final int ttl;
+
     @NotNull
     private final HashMap<String, ColumnMetadata> columnsMetadata = new HashMap<>();
     /**
@@ -57,11 +63,26 @@ class EntityMetadata {
     @NotNull
     private final HashMap<Integer, PrimaryKeyMetadata> primaryKeys = new HashMap<>();
 
+    /**
+     * Immutable snapshot of columns metadata, rebuilt only while entity metadata is being built
+     */
+    @NotNull
+    private List<ColumnMetadata> fieldMetaData = Collections.emptyList();
+
+    private int partitionKeySize;
+
+    /**
+     * Write timestamp field metadata or null if entity has no {@link WriteTimestamp} field
+     */
+    @Nullable
+    private WriteTimestampMetadata writeTimestampMetadata;
+
     private EntityMetadata(@NotNull String tableName,
                            @NotNull String keyspace, boolean compactStorage,
                            int maxFetchSize,
                            @NotNull ConsistencyLevel readConsistencyLevel,
                            @NotNull ConsistencyLevel writeConsistencyLevel,
+                           int ttl,
                            @NotNull TableMetadata tableMetadata) {
         this.tableName = tableName;
         this.keyspace = keyspace;
@@ -69,6 +90,7 @@ class EntityMetadata {
         this.maxFetchSize = maxFetchSize;
         this.readConsistencyLevel = readConsistencyLevel;
         this.writeConsistencyLevel = writeConsistencyLevel;
+        this.ttl = ttl;
         this.tableMetadata = tableMetadata;
     }
 
@@ -87,6 +109,21 @@ class EntityMetadata {
             PrimaryKeyMetadata primaryKeyMetadata = (PrimaryKeyMetadata) columnMetadata;
             primaryKeys.put(primaryKeyMetadata.getOrder(), primaryKeyMetadata);
         }
+
+        fieldMetaData = Collections.unmodifiableList(new ArrayList<>(columnsMetadata.values()));
+
+        partitionKeySize = (int) primaryKeys.values()
+                                            .stream()
+                                            .filter(PrimaryKeyMetadata::isPartitionKey)
+                                            .count();
+    }
+
+    private void setWriteTimestampMetadata(@NotNull WriteTimestampMetadata writeTimestampMetadata) {
+        if (this.writeTimestampMetadata != null) {
+            throw new MetadataException(String.format("Entity \"%s\" must contain only one write timestamp", getTableName()));
+        }
+
+        this.writeTimestampMetadata = writeTimestampMetadata;
     }
 
     /**
@@ -104,6 +141,10 @@ class EntityMetadata {
         if (entityMetadata.getPartitionKeySize() < 1) {
             throw new MetadataException(String.format("Entity \"%s\"must contains primary key", entityMetadata.getTableName()));
         }
+
+        if (entityMetadata.getTtl() < 0) {
+            throw new MetadataException(String.format("Invalid TTL of entity \"%s\": %d", entityMetadata.getTableName(), entityMetadata.getTtl()));
+        }
     }
 
     private static String getColumnName(@NotNull PropertyDescriptor propertyDescriptor, @NotNull Column columnAnnotation) {
@@ -122,10 +163,7 @@ class EntityMetadata {
     }
 
     int getPartitionKeySize() {
-        return columnsMetadata.entrySet()
-                              .stream()
-                              .mapToInt(entry -> entry.getValue() instanceof PrimaryKeyMetadata && ((PrimaryKeyMetadata) entry.getValue()).isPartitionKey() ? 1 : 0)
-                              .sum();
+        return partitionKeySize;
     }
 
     Optional<PrimaryKeyMetadata> getPrimaryKey(int oder) {
@@ -135,13 +173,10 @@ class EntityMetadata {
     /**
      * Get field metadata
      *
-     * @return
+     * @return Immutable list of columns metadata, same instance is returned on each call
      */
     List<ColumnMetadata> getFieldMetaData() {
-        return columnsMetadata.entrySet()
-                              .stream()
-                              .map(entry -> entry.getValue())
-                              .collect(Collectors.toList());
+        return fieldMetaData;
     }
 
     @NotNull
@@ -165,6 +200,15 @@ class EntityMetadata {
         return tableMetadata.getPrimaryKey().size();
     }
 
+    int getTtl() {
+        return ttl;
+    }
+
+    @Nullable
+    WriteTimestampMetadata getWriteTimestampMetadata() {
+        return writeTimestampMetadata;
+    }
+
     @NotNull
     ConsistencyLevel getWriteConsistencyLevel() {
         return writeConsistencyLevel;
@@ -206,6 +250,7 @@ class EntityMetadata {
                 tableAnnotation.fetchSize(),
                 tableAnnotation.readConsistencyLevel(),
                 tableAnnotation.writeConsistencyLevel(),
+                tableAnnotation.ttl(),
                 tableMetadata
         );
 
@@ -220,6 +265,12 @@ class EntityMetadata {
                     entityMetadata.addColumnMetadata(columnMetadata);
                 }
 
+                WriteTimestampMetadata writeTimestampMetadata = buildWriteTimestampMetadata(propertyDescriptor, clazz);
+
+                if (writeTimestampMetadata != null) {
+                    entityMetadata.setWriteTimestampMetadata(writeTimestampMetadata);
+                }
+
                 LOGGER.debug("Property descriptor: {} {}", propertyDescriptor.getName(), propertyDescriptor.getDisplayName());
             }
         } catch (IntrospectionException e) {
@@ -231,6 +282,27 @@ class EntityMetadata {
         return entityMetadata;
     }
 
+    /**
+     * Build write timestamp metadata
+     *
+     * @param propertyDescriptor Field property descriptor
+     * @param clazz              Entity java class
+     *
+     * @return Write timestamp metadata or null if property is not annotated by {@link WriteTimestamp}
+     */
+    @Nullable
+    private static WriteTimestampMetadata buildWriteTimestampMetadata(@NotNull PropertyDescriptor propertyDescriptor, @NotNull Class<?> clazz) {
+        try {
+            Field field = clazz.getDeclaredField(propertyDescriptor.getName());
+
+            WriteTimestamp writeTimestamp = field.getDeclaredAnnotation(WriteTimestamp.class);
+
+            return writeTimestamp == null ? null : WriteTimestampMetadata.build(propertyDescriptor, clazz, writeTimestamp);
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
     static ColumnMetadata buildUdtColumnMetadata(@NotNull PropertyDescriptor propertyDescriptor, @NotNull Class udtClassType, @NotNull UserType udtType) {
         try {
             Field field = udtClassType.getDeclaredField(propertyDescriptor.getName());
@@ -113,6 +113,12 @@ class EnumeratedMetadata implements ColumnMetadata {
         return columnMetadata.getName();
     }
 
+    @NotNull
+    @Override
+    public String getPropertyName() {
+        return columnMetadata.getPropertyName();
+    }
+
     @NotNull
     @Override
     public Class getFieldType() {
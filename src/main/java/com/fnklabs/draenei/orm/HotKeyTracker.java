@@ -0,0 +1,183 @@
+package com.fnklabs.draenei.orm;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Track access frequency of keys and save the hottest keys to local snapshot file
+ * <p>
+ * Number of tracked keys is bounded, least recently accessed keys are evicted. Counters are halved after every snapshot, so keys that are not accessed
+ * anymore cool down. Snapshot is written to temporary file and moved to snapshot file, so it's never read partially written.
+ */
+class HotKeyTracker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HotKeyTracker.class);
+
+    /**
+     * Access counters by cache key
+     */
+    @NotNull
+    private final Cache<Object, AccessCounter> counters;
+
+    @NotNull
+    private final Path snapshotFile;
+
+    /**
+     * Max number of keys in snapshot
+     */
+    private final int snapshotSize;
+
+    /**
+     * Function that build {@link EntityKey} from primary key values
+     */
+    @NotNull
+    private final Function<Object[], EntityKey> keyEncoder;
+
+    /**
+     * @param snapshotFile   Snapshot file
+     * @param snapshotSize   Max number of keys in snapshot
+     * @param maxTrackedKeys Max number of tracked keys
+     * @param keyEncoder     Function that build {@link EntityKey} from primary key values
+     */
+    HotKeyTracker(@NotNull Path snapshotFile, int snapshotSize, long maxTrackedKeys, @NotNull Function<Object[], EntityKey> keyEncoder) {
+        this.snapshotFile = snapshotFile;
+        this.snapshotSize = snapshotSize;
+        this.keyEncoder = keyEncoder;
+        this.counters = CacheBuilder.newBuilder()
+                                    .maximumSize(maxTrackedKeys)
+                                    .build();
+    }
+
+    /**
+     * Record key access
+     *
+     * @param cacheKey Cache key
+     * @param keys     Primary key values
+     */
+    void recordAccess(@NotNull Object cacheKey, @NotNull Object[] keys) {
+        try {
+            counters.get(cacheKey, () -> new AccessCounter(keys)).increment();
+        } catch (ExecutionException e) {
+            LOGGER.warn("Can't record key access", e);
+        }
+    }
+
+    /**
+     * Get the hottest keys
+     *
+     * @return Primary key values of the hottest keys in access frequency descending order
+     */
+    @NotNull
+    List<Object[]> getHottestKeys() {
+        return counters.asMap()
+                       .values()
+                       .stream()
+                       .sorted(Comparator.comparingLong(AccessCounter::get).reversed())
+                       .limit(snapshotSize)
+                       .map(AccessCounter::getKeys)
+                       .collect(Collectors.toList());
+    }
+
+    /**
+     * Write the hottest keys to snapshot file and cool down counters
+     *
+     * @return Number of written keys
+     *
+     * @throws IOException if snapshot can't be written
+     */
+    int writeSnapshot() throws IOException {
+        ArrayList<EntityKey> keys = new ArrayList<>();
+
+        for (Object[] hotKey : getHottestKeys()) {
+            keys.add(keyEncoder.apply(hotKey));
+        }
+
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+
+        try (OutputStream outputStream = Files.newOutputStream(tempFile);
+             ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(keys);
+        }
+
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        counters.asMap().values().forEach(AccessCounter::coolDown);
+
+        LOGGER.debug("Complete to write {} hot keys to {}", keys.size(), snapshotFile);
+
+        return keys.size();
+    }
+
+    /**
+     * Read keys from snapshot file
+     *
+     * @return Keys in access frequency descending order or empty list if there is no snapshot
+     *
+     * @throws IOException if snapshot can't be read
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    List<EntityKey> readSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return Collections.emptyList();
+        }
+
+        try (InputStream inputStream = Files.newInputStream(snapshotFile);
+             ObjectInputStream objectInputStream = new ObjectInputStream(inputStream)) {
+            return (List<EntityKey>) objectInputStream.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException(String.format("Invalid hot keys snapshot %s", snapshotFile), e);
+        }
+    }
+
+    private static class AccessCounter {
+        @NotNull
+        private final Object[] keys;
+
+        private final AtomicLong counter = new AtomicLong();
+
+        private AccessCounter(@NotNull Object[] keys) {
+            this.keys = keys;
+        }
+
+        @NotNull
+        private Object[] getKeys() {
+            return keys;
+        }
+
+        private long get() {
+            return counter.get();
+        }
+
+        private void increment() {
+            counter.incrementAndGet();
+        }
+
+        private void coolDown() {
+            long value;
+
+            do {
+                value = counter.get();
+            } while (!counter.compareAndSet(value, value >> 1));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.fnklabs.draenei.orm;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Build hash code of primary key values
+ * <p>
+ * Primitive values, UUID, String and ByteBuffer are put into hasher directly, other values are put in column serialized form, so no intermediate streams
+ * or copies of key are created. Every value is prefixed by type tag (and length for variable size values) to keep different key sets distinguishable.
+ */
+final class KeyHasher {
+    /**
+     * hashing function to build Entity hash code
+     */
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private static final byte NULL_TAG = 0;
+    private static final byte LONG_TAG = 1;
+    private static final byte INTEGER_TAG = 2;
+    private static final byte SHORT_TAG = 3;
+    private static final byte BYTE_TAG = 4;
+    private static final byte BOOLEAN_TAG = 5;
+    private static final byte DOUBLE_TAG = 6;
+    private static final byte FLOAT_TAG = 7;
+    private static final byte UUID_TAG = 8;
+    private static final byte STRING_TAG = 9;
+    private static final byte BYTES_TAG = 10;
+
+    private KeyHasher() {
+    }
+
+    /**
+     * Build hash code of primary key values
+     *
+     * @param primaryKeys Primary keys metadata in primary key order
+     * @param keys        Full or partial primary key values in primary key order
+     *
+     * @return Hash code
+     *
+     * @throws IllegalArgumentException if there are more values than primary keys
+     */
+    static long hash(@NotNull PrimaryKeyMetadata[] primaryKeys, @NotNull List<Object> keys) {
+        if (keys.size() > primaryKeys.length) {
+            throw new IllegalArgumentException(String.format("Invalid number of keys. Expected at most: %d Actual: %d", primaryKeys.length, keys.size()));
+        }
+
+        Hasher hasher = HASH_FUNCTION.newHasher();
+
+        for (int i = 0; i < keys.size(); i++) {
+            putValue(hasher, primaryKeys[i], keys.get(i));
+        }
+
+        return hasher.hash().asLong();
+    }
+
+    private static void putValue(@NotNull Hasher hasher, @NotNull ColumnMetadata column, @Nullable Object value) {
+        if (value == null) {
+            hasher.putByte(NULL_TAG);
+        } else if (value instanceof Long) {
+            hasher.putByte(LONG_TAG).putLong((Long) value);
+        } else if (value instanceof Integer) {
+            hasher.putByte(INTEGER_TAG).putInt((Integer) value);
+        } else if (value instanceof Short) {
+            hasher.putByte(SHORT_TAG).putShort((Short) value);
+        } else if (value instanceof Byte) {
+            hasher.putByte(BYTE_TAG).putByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            hasher.putByte(BOOLEAN_TAG).putBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            hasher.putByte(DOUBLE_TAG).putDouble((Double) value);
+        } else if (value instanceof Float) {
+            hasher.putByte(FLOAT_TAG).putFloat((Float) value);
+        } else if (value instanceof UUID) {
+            UUID uuid = (UUID) value;
+
+            hasher.putByte(UUID_TAG)
+                  .putLong(uuid.getMostSignificantBits())
+                  .putLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof String) {
+            String string = (String) value;
+
+            hasher.putByte(STRING_TAG)
+                  .putInt(string.length())
+                  .putUnencodedChars(string);
+        } else if (value instanceof ByteBuffer) {
+            putBytes(hasher, (ByteBuffer) value);
+        } else {
+            putBytes(hasher, column.serialize(value));
+        }
+    }
+
+    private static void putBytes(@NotNull Hasher hasher, @Nullable ByteBuffer data) {
+        if (data == null) {
+            hasher.putByte(NULL_TAG);
+            return;
+        }
+
+        hasher.putByte(BYTES_TAG).putInt(data.remaining());
+
+        if (data.hasArray()) {
+            hasher.putBytes(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        } else {
+            for (int i = data.position(); i < data.limit(); i++) {
+                hasher.putByte(data.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.fnklabs.draenei.orm;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cluster.ClusterGroup;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-process cache in front of Ignite cache
+ * <p>
+ * Entries are evicted by size (LRU) and expire after write. When entry is changed on any node invalidation message is sent to other nodes, so stale entries
+ * live no longer than message delivery time. Entry that is loaded concurrently with invalidation can be stale until expiration.
+ *
+ * @param <Entry> Entry class type
+ */
+class LocalEntryCache<Entry> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalEntryCache.class);
+
+    @NotNull
+    private final Cache<Object, Entry> entries;
+
+    @NotNull
+    private final Ignite ignite;
+
+    /**
+     * Invalidation messages topic
+     */
+    @NotNull
+    private final String topic;
+
+    /**
+     * @param ignite           Ignite instance
+     * @param cacheName        Ignite cache name
+     * @param maxSize          Max number of entries
+     * @param expireAfterWrite Entry expiration time
+     * @param expireTimeUnit   Entry expiration time unit
+     */
+    LocalEntryCache(@NotNull Ignite ignite, @NotNull String cacheName, long maxSize, long expireAfterWrite, @NotNull TimeUnit expireTimeUnit) {
+        this.ignite = ignite;
+        this.topic = String.format("draenei.local_cache.%s", cacheName);
+        this.entries = CacheBuilder.newBuilder()
+                                   .maximumSize(maxSize)
+                                   .expireAfterWrite(expireAfterWrite, expireTimeUnit)
+                                   .build();
+
+        ignite.message().localListen(topic, (UUID nodeId, Object key) -> {
+            entries.invalidate(key);
+
+            return true;
+        });
+    }
+
+    @Nullable
+    Entry get(@NotNull Object key) {
+        return entries.getIfPresent(key);
+    }
+
+    void put(@NotNull Object key, @NotNull Entry entry) {
+        entries.put(key, entry);
+    }
+
+    /**
+     * Invalidate entry on current node
+     *
+     * @param key Cache key
+     */
+    void invalidateLocal(@NotNull Object key) {
+        entries.invalidate(key);
+    }
+
+    /**
+     * Invalidate entry on current and remote nodes
+     *
+     * @param key Cache key
+     */
+    void invalidate(@NotNull Object key) {
+        entries.invalidate(key);
+
+        ClusterGroup remoteNodes = ignite.cluster().forRemotes();
+
+        if (remoteNodes.nodes().isEmpty()) {
+            return;
+        }
+
+        try {
+            ignite.message(remoteNodes).send(topic, key);
+        } catch (IgniteException e) {
+            LOGGER.warn("Can't send invalidation message", e);
+        }
+    }
+}
@@ -1,26 +1,57 @@
 package com.fnklabs.draenei.orm;
 
+import com.datastax.driver.core.ColumnDefinitions;
 import com.datastax.driver.core.Row;
+import com.fnklabs.draenei.orm.exception.MetadataException;
+import com.fnklabs.draenei.orm.mapping.Accessors;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Map data from {@link Row} to object
+ * <p>
+ * Columns of result metadata are resolved to entity columns only once per {@link ColumnDefinitions} instance (driver share it between all rows of prepared
+ * statement), after that cells are read by position
  *
  * @param <ReturnValue>
  */
 class MapToObjectFunction<ReturnValue> implements Function<Row, ReturnValue> {
     private static final Logger LOGGER = LoggerFactory.getLogger(MapToObjectFunction.class);
 
-    private final Class<ReturnValue> clazz;
+    /**
+     * Max number of different result metadata for which layout will be kept
+     */
+    private static final int MAX_ROW_LAYOUTS = 32;
+
+    private final Supplier<ReturnValue> constructor;
     private final EntityMetadata entityMetadata;
 
+    /**
+     * Resolved layouts by result metadata instance (weak keys are compared by identity)
+     */
+    private final Cache<ColumnDefinitions, RowLayout> rowLayouts = CacheBuilder.newBuilder()
+                                                                               .weakKeys()
+                                                                               .maximumSize(MAX_ROW_LAYOUTS)
+                                                                               .build();
+
+    /**
+     * Last used layout, rows of one result set always share same metadata so in most cases layouts cache is not touched
+     */
+    private volatile RowLayout lastRowLayout;
+
     MapToObjectFunction(Class<ReturnValue> clazz, EntityMetadata entityMetadata) {
-        this.clazz = clazz;
+        this.constructor = Accessors.constructor(clazz);
         this.entityMetadata = entityMetadata;
     }
 
@@ -29,24 +60,77 @@ class MapToObjectFunction<ReturnValue> implements Function<Row, ReturnValue> {
         ReturnValue instance = null;
 
         try {
-            instance = clazz.newInstance();
+            RowLayout rowLayout = getRowLayout(row.getColumnDefinitions());
 
-            List<ColumnMetadata> columns = entityMetadata.getFieldMetaData();
+            instance = constructor.get();
 
-            for (ColumnMetadata column : columns) {
-                if (row.getColumnDefinitions().contains(column.getName())) {
+            int[] indexes = rowLayout.indexes;
+            ColumnMetadata[] columns = rowLayout.columns;
 
-                    ByteBuffer data = row.getBytesUnsafe(column.getName());
+            for (int i = 0; i < indexes.length; i++) {
+                ColumnMetadata column = columns[i];
 
-                    Object deserializedValue = column.deserialize(data);
+                ByteBuffer data = row.getBytesUnsafe(indexes[i]);
 
-                    column.writeValue(instance, deserializedValue);
-                }
+                Object deserializedValue = column.deserialize(data);
+
+                column.writeValue(instance, deserializedValue);
             }
 
-        } catch (InstantiationException | IllegalAccessException e) {
+        } catch (MetadataException e) {
             LOGGER.warn("Cant retrieve entity instance", e);
         }
         return instance;
     }
+
+    @NotNull
+    private RowLayout getRowLayout(@NotNull ColumnDefinitions columnDefinitions) {
+        RowLayout rowLayout = lastRowLayout;
+
+        if (rowLayout == null || rowLayout.columnDefinitions != columnDefinitions) {
+            try {
+                rowLayout = rowLayouts.get(columnDefinitions, () -> new RowLayout(columnDefinitions, entityMetadata.getFieldMetaData()));
+            } catch (ExecutionException e) {
+                throw new MetadataException("Can't resolve columns layout", e.getCause());
+            }
+
+            lastRowLayout = rowLayout;
+        }
+
+        return rowLayout;
+    }
+
+    /**
+     * Positions of entity columns in result metadata
+     */
+    private static final class RowLayout {
+        private final ColumnDefinitions columnDefinitions;
+
+        /**
+         * Column index in row
+         */
+        private final int[] indexes;
+
+        /**
+         * Column metadata for index in {@link #indexes}
+         */
+        private final ColumnMetadata[] columns;
+
+        private RowLayout(@NotNull ColumnDefinitions columnDefinitions, @NotNull List<ColumnMetadata> entityColumns) {
+            this.columnDefinitions = columnDefinitions;
+
+            List<ColumnMetadata> resolvedColumns = new ArrayList<>(entityColumns.size());
+            int[] resolvedIndexes = new int[entityColumns.size()];
+
+            for (ColumnMetadata column : entityColumns) {
+                if (columnDefinitions.contains(column.getName())) {
+                    resolvedIndexes[resolvedColumns.size()] = columnDefinitions.getIndexOf(column.getName());
+                    resolvedColumns.add(column);
+                }
+            }
+
+            this.indexes = Arrays.copyOf(resolvedIndexes, resolvedColumns.size());
+            this.columns = resolvedColumns.toArray(new ColumnMetadata[resolvedColumns.size()]);
+        }
+    }
 }
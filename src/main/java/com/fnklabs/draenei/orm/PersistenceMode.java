@@ -0,0 +1,24 @@
+package com.fnklabs.draenei.orm;
+
+/**
+ * How {@link CacheableDataProvider} persist cache changes into Cassandra
+ */
+public enum PersistenceMode {
+    /**
+     * Every cache put/remove/expire event is written by separate query. Requires cache events to be enabled
+     */
+    CACHE_EVENTS,
+
+    /**
+     * Changes are written by Ignite write-behind store ({@link DataProviderCacheStore}) in partition batches, repeated updates of same key within flush
+     * interval are coalesced into one write. Binary keys are used for cache
+     */
+    WRITE_BEHIND,
+
+    /**
+     * Changes are appended to node-local memory-mapped journal before cache is updated and flushed into Cassandra by node-local flusher in partition
+     * batches, repeated updates of same key within flush interval are coalesced into one write. Changes that weren't flushed before node crash are
+     * replayed on restart. Cache events are not required
+     */
+    JOURNAL
+}
@@ -51,6 +51,12 @@ class PrimaryKeyMetadata implements ColumnMetadata {
         return columnMetadata.getName();
     }
 
+    @NotNull
+    @Override
+    public String getPropertyName() {
+        return columnMetadata.getPropertyName();
+    }
+
     @NotNull
     @Override
     public Class getFieldType() {
@@ -0,0 +1,102 @@
+package com.fnklabs.draenei.orm;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Track when cache entries were written by current node and decide which accessed entries must be reloaded before they expire
+ * <p>
+ * Entry is due for refresh when it's older than refresh time. Write time of entries that were written by other nodes is unknown, so they are refreshed
+ * on first access. Only one refresh of the same key is in flight at once.
+ */
+class RefreshAheadTracker {
+    /**
+     * Write time of entries by cache key in milliseconds
+     */
+    @NotNull
+    private final Cache<Object, Long> writeTimes;
+
+    /**
+     * Keys which refresh is in progress
+     */
+    @NotNull
+    private final Set<Object> inFlightRefreshes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Age of entry after which it's refreshed on access in milliseconds
+     */
+    private final long refreshAfter;
+
+    @NotNull
+    private final LongSupplier clock;
+
+    /**
+     * @param refreshAfter   Age of entry after which it's refreshed on access in milliseconds
+     * @param expireAfter    Entry expiry time in milliseconds
+     * @param maxTrackedKeys Max number of tracked keys
+     */
+    RefreshAheadTracker(long refreshAfter, long expireAfter, long maxTrackedKeys) {
+        this(refreshAfter, expireAfter, maxTrackedKeys, System::currentTimeMillis);
+    }
+
+    /**
+     * @param refreshAfter   Age of entry after which it's refreshed on access in milliseconds
+     * @param expireAfter    Entry expiry time in milliseconds
+     * @param maxTrackedKeys Max number of tracked keys
+     * @param clock          Current time supplier in milliseconds
+     */
+    RefreshAheadTracker(long refreshAfter, long expireAfter, long maxTrackedKeys, @NotNull LongSupplier clock) {
+        this.refreshAfter = refreshAfter;
+        this.clock = clock;
+        this.writeTimes = CacheBuilder.newBuilder()
+                                      .maximumSize(maxTrackedKeys)
+                                      .expireAfterWrite(expireAfter, TimeUnit.MILLISECONDS)
+                                      .build();
+    }
+
+    /**
+     * Record that entry was written to cache
+     *
+     * @param cacheKey Cache key
+     */
+    void onWrite(@NotNull Object cacheKey) {
+        writeTimes.put(cacheKey, clock.getAsLong());
+    }
+
+    /**
+     * Check if accessed entry is due for refresh and start its refresh
+     *
+     * @param cacheKey Cache key
+     *
+     * @return True if caller must refresh entry and then invoke {@link #onRefreshComplete(Object, boolean)}
+     */
+    boolean tryStartRefresh(@NotNull Object cacheKey) {
+        Long writeTime = writeTimes.getIfPresent(cacheKey);
+
+        if (writeTime != null && clock.getAsLong() - writeTime < refreshAfter) {
+            return false;
+        }
+
+        return inFlightRefreshes.add(cacheKey);
+    }
+
+    /**
+     * Complete refresh of entry
+     *
+     * @param cacheKey  Cache key
+     * @param refreshed True if entry was refreshed, otherwise it will be refreshed again on next access
+     */
+    void onRefreshComplete(@NotNull Object cacheKey, boolean refreshed) {
+        if (refreshed) {
+            onWrite(cacheKey);
+        }
+
+        inFlightRefreshes.remove(cacheKey);
+    }
+}
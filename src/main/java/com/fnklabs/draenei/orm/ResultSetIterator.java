@@ -0,0 +1,90 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Lazy iterator over ResultSet that map rows to entities on demand
+ * <p>
+ * Next page is requested asynchronously when number of buffered rows drops to prefetch threshold, so consumer doesn't wait for page while processing current
+ * one. Only one page is prefetched ahead, so memory usage doesn't depend on result size and slow consumer doesn't cause loading of whole result.
+ *
+ * @param <V> Entity class type
+ */
+class ResultSetIterator<V> implements Iterator<V> {
+    @NotNull
+    private final ResultSet resultSet;
+
+    /**
+     * Map row to entity, null result means that row must be skipped
+     */
+    @NotNull
+    private final Function<Row, V> mapper;
+
+    private final int prefetchThreshold;
+
+    /**
+     * Next entity that was mapped by {@link #hasNext()} but not returned yet
+     */
+    @Nullable
+    private V nextEntity;
+
+    /**
+     * @param resultSet         Result set
+     * @param mapper            Function that map row to entity
+     * @param prefetchThreshold Number of buffered rows on which next page will be requested
+     */
+    ResultSetIterator(@NotNull ResultSet resultSet, @NotNull Function<Row, V> mapper, int prefetchThreshold) {
+        this.resultSet = resultSet;
+        this.mapper = mapper;
+        this.prefetchThreshold = prefetchThreshold;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextEntity == null) {
+            prefetch(resultSet, prefetchThreshold);
+
+            Row row = resultSet.one();
+
+            if (row == null) {
+                return false;
+            }
+
+            nextEntity = mapper.apply(row);
+        }
+
+        return true;
+    }
+
+    @Override
+    public V next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        V entity = nextEntity;
+
+        nextEntity = null;
+
+        return entity;
+    }
+
+    /**
+     * Request next page asynchronously if number of buffered rows dropped to threshold. Driver doesn't send new request while previous one is in progress
+     *
+     * @param resultSet         Result set
+     * @param prefetchThreshold Number of buffered rows on which next page will be requested
+     */
+    static void prefetch(@NotNull ResultSet resultSet, int prefetchThreshold) {
+        if (resultSet.getAvailableWithoutFetching() <= prefetchThreshold && !resultSet.isFullyFetched()) {
+            resultSet.fetchMoreResults();
+        }
+    }
+}
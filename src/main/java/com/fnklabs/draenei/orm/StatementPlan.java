@@ -0,0 +1,505 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.querybuilder.Delete;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.fnklabs.draenei.CassandraClient;
+import com.fnklabs.draenei.orm.exception.QueryException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Precompiled statements of entity
+ * <p>
+ * Build all queries that {@link DataProvider} execute on hot path (insert, delete, select by N primary keys, select by IN on last clustering key, select by
+ * token range) only once and keep prepared statements with ordered column arrays, so binding doesn't require building CQL, looking up prepared statements
+ * cache and retrieving column metadata
+ */
+class StatementPlan {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementPlan.class);
+
+    /**
+     * Type that is used to serialize already serialized values of IN clause
+     */
+    private static final DataType IN_VALUES_TYPE = DataType.list(DataType.blob());
+
+    /**
+     * Insert statement, bind markers are in {@link #insertColumns} order
+     */
+    @NotNull
+    private final PreparedStatement insertStatement;
+
+    /**
+     * Columns that must be bound to insert statement
+     */
+    @NotNull
+    private final ColumnMetadata[] insertColumns;
+
+    /**
+     * Positions of primary key columns (in primary key order) in insert statement
+     */
+    @NotNull
+    private final int[] insertPrimaryKeyIndexes;
+
+    /**
+     * Delete by full primary key statement, bind markers are in {@link #primaryKeys} order
+     */
+    @NotNull
+    private final PreparedStatement deleteStatement;
+
+    /**
+     * Primary keys ordered by {@link PrimaryKeyMetadata#getOrder()}
+     */
+    @NotNull
+    private final PrimaryKeyMetadata[] primaryKeys;
+
+    /**
+     * Select statements where index is number of bound primary keys, null if such number of keys is not allowed
+     */
+    @NotNull
+    private final PreparedStatement[] selectStatements;
+
+    /**
+     * Select by token range (start, end] statement
+     */
+    @NotNull
+    private final PreparedStatement tokenRangeStatement;
+
+    /**
+     * Select by all primary keys where last clustering key is bound by IN clause, null if entity has no clustering keys
+     */
+    @Nullable
+    private final PreparedStatement selectInStatement;
+
+    private final int minPrimaryKeys;
+
+    private final int partitionKeySize;
+
+    /**
+     * Write timestamp metadata or null if insert and delete statements are executed without {@code USING TIMESTAMP}
+     */
+    @Nullable
+    private final WriteTimestampMetadata writeTimestampMetadata;
+
+    /**
+     * Protocol version that is used to serialize values of IN clause
+     */
+    @NotNull
+    private final ProtocolVersion protocolVersion;
+
+    private StatementPlan(@NotNull PreparedStatement insertStatement,
+                          @NotNull ColumnMetadata[] insertColumns,
+                          @NotNull int[] insertPrimaryKeyIndexes,
+                          @NotNull PreparedStatement deleteStatement,
+                          @NotNull PrimaryKeyMetadata[] primaryKeys,
+                          @NotNull PreparedStatement[] selectStatements,
+                          @NotNull PreparedStatement tokenRangeStatement,
+                          @Nullable PreparedStatement selectInStatement,
+                          int minPrimaryKeys,
+                          int partitionKeySize,
+                          @Nullable WriteTimestampMetadata writeTimestampMetadata,
+                          @NotNull ProtocolVersion protocolVersion) {
+        this.insertStatement = insertStatement;
+        this.insertColumns = insertColumns;
+        this.insertPrimaryKeyIndexes = insertPrimaryKeyIndexes;
+        this.deleteStatement = deleteStatement;
+        this.primaryKeys = primaryKeys;
+        this.selectStatements = selectStatements;
+        this.tokenRangeStatement = tokenRangeStatement;
+        this.selectInStatement = selectInStatement;
+        this.minPrimaryKeys = minPrimaryKeys;
+        this.partitionKeySize = partitionKeySize;
+        this.writeTimestampMetadata = writeTimestampMetadata;
+        this.protocolVersion = protocolVersion;
+    }
+
+    @NotNull
+    PrimaryKeyMetadata[] getPrimaryKeys() {
+        return primaryKeys;
+    }
+
+    @NotNull
+    PreparedStatement getTokenRangeStatement() {
+        return tokenRangeStatement;
+    }
+
+    int getPartitionKeySize() {
+        return partitionKeySize;
+    }
+
+    /**
+     * Check if several rows of one partition can be selected by single statement with IN clause on last clustering key
+     *
+     * @return True if {@link #bindSelectIn(List, Collection)} can be used
+     */
+    boolean isSelectInSupported() {
+        return selectInStatement != null;
+    }
+
+    /**
+     * Get serialized partition key values of bound statement that was created by current plan
+     *
+     * @param boundStatement Insert, delete or select by primary keys statement with bound partition keys
+     *
+     * @return Serialized partition key values that can be used as partition identity
+     */
+    @NotNull
+    List<ByteBuffer> getPartitionKey(@NotNull BoundStatement boundStatement) {
+        return getBoundKeys(boundStatement, partitionKeySize);
+    }
+
+    /**
+     * Get serialized primary key values of bound statement that was created by current plan
+     *
+     * @param boundStatement Insert or delete statement
+     *
+     * @return Serialized primary key values that can be used as row identity
+     */
+    @NotNull
+    List<ByteBuffer> getPrimaryKey(@NotNull BoundStatement boundStatement) {
+        return getBoundKeys(boundStatement, primaryKeys.length);
+    }
+
+    /**
+     * Get write timestamp that is bound to insert or delete statement that was created by current plan
+     *
+     * @param boundStatement Insert or delete statement
+     *
+     * @return Write timestamp in microseconds or {@link Long#MIN_VALUE} if statement is executed without {@code USING TIMESTAMP}
+     */
+    long getWriteTimestamp(@NotNull BoundStatement boundStatement) {
+        if (writeTimestampMetadata == null) {
+            return Long.MIN_VALUE;
+        }
+
+        return boundStatement.getLong(boundStatement.preparedStatement() == insertStatement ? insertColumns.length : 0);
+    }
+
+    /**
+     * Get index of first primary key in bound statement, delete statement with write timestamp has timestamp marker before primary keys
+     *
+     * @param boundStatement Bound statement
+     *
+     * @return Index of first primary key
+     */
+    private int getDeleteKeysOffset(@NotNull BoundStatement boundStatement) {
+        return writeTimestampMetadata != null && boundStatement.preparedStatement() == deleteStatement ? 1 : 0;
+    }
+
+    @NotNull
+    private List<ByteBuffer> getBoundKeys(@NotNull BoundStatement boundStatement, int keysNumber) {
+        ByteBuffer[] keys = new ByteBuffer[keysNumber];
+
+        boolean isInsert = boundStatement.preparedStatement() == insertStatement;
+
+        int keysOffset = getDeleteKeysOffset(boundStatement);
+
+        for (int i = 0; i < keysNumber; i++) {
+            keys[i] = boundStatement.getBytesUnsafe(isInsert ? insertPrimaryKeyIndexes[i] : i + keysOffset);
+        }
+
+        return Arrays.asList(keys);
+    }
+
+    /**
+     * Create insert BoundStatement and bind all column values from entity
+     *
+     * @param entity Entity from which will be read data
+     *
+     * @return BoundStatement
+     */
+    @NotNull
+    BoundStatement bindInsert(@NotNull Object entity) {
+        BoundStatement boundStatement = new BoundStatement(insertStatement);
+
+        for (int i = 0; i < insertColumns.length; i++) {
+            ColumnMetadata column = insertColumns[i];
+
+            Object value = column.readValue(entity);
+
+            boundStatement.setBytesUnsafe(i, column.serialize(value));
+        }
+
+        if (writeTimestampMetadata != null) {
+            boundStatement.setLong(insertColumns.length, writeTimestampMetadata.readTimestamp(entity));
+        }
+
+        return boundStatement;
+    }
+
+    /**
+     * Create delete BoundStatement and bind primary key values from entity
+     *
+     * @param entity Entity from which will be read primary keys
+     *
+     * @return BoundStatement
+     */
+    @NotNull
+    BoundStatement bindDelete(@NotNull Object entity) {
+        BoundStatement boundStatement = new BoundStatement(deleteStatement);
+
+        int keysOffset = getDeleteKeysOffset(boundStatement);
+
+        if (writeTimestampMetadata != null) {
+            boundStatement.setLong(0, writeTimestampMetadata.readTimestamp(entity));
+        }
+
+        for (int i = 0; i < primaryKeys.length; i++) {
+            PrimaryKeyMetadata primaryKeyMetadata = primaryKeys[i];
+
+            Object value = primaryKeyMetadata.readValue(entity);
+
+            boundStatement.setBytesUnsafe(i + keysOffset, primaryKeyMetadata.serialize(value));
+        }
+
+        return boundStatement;
+    }
+
+    /**
+     * Create delete BoundStatement and bind serialized primary key values
+     *
+     * @param keys Serialized values of all primary keys in primary key order
+     *
+     * @return BoundStatement
+     *
+     * @throws QueryException if not all primary keys were provided
+     */
+    @NotNull
+    BoundStatement bindDeleteByKey(@NotNull List<ByteBuffer> keys) {
+        if (keys.size() != primaryKeys.length) {
+            throw new QueryException(String.format("Invalid number of parameters all primary keys must be provided. Expected: %d Actual: %d", primaryKeys.length, keys.size()));
+        }
+
+        BoundStatement boundStatement = new BoundStatement(deleteStatement);
+
+        int keysOffset = getDeleteKeysOffset(boundStatement);
+
+        // there is no entity version, so delete is applied with current time
+        if (writeTimestampMetadata != null) {
+            boundStatement.setLong(0, WriteTimestampMetadata.getCurrentTimestamp());
+        }
+
+        for (int i = 0; i < primaryKeys.length; i++) {
+            boundStatement.setBytesUnsafe(i + keysOffset, keys.get(i));
+        }
+
+        return boundStatement;
+    }
+
+    /**
+     * Create select BoundStatement and bind primary key values
+     *
+     * @param keys Primary key values in primary key order
+     *
+     * @return BoundStatement
+     *
+     * @throws QueryException if invalid number of keys was provided
+     */
+    @NotNull
+    BoundStatement bindSelect(@NotNull List<Object> keys) {
+        int parametersLength = keys.size();
+
+        if (parametersLength >= selectStatements.length || selectStatements[parametersLength] == null) {
+            throw new QueryException(String.format("Invalid number of parameters at least composite keys must me provided. Expected: %d Actual: %d", minPrimaryKeys, parametersLength));
+        }
+
+        BoundStatement boundStatement = new BoundStatement(selectStatements[parametersLength]);
+
+        for (int i = 0; i < parametersLength; i++) {
+            boundStatement.setBytesUnsafe(i, primaryKeys[i].serialize(keys.get(i)));
+        }
+
+        return boundStatement;
+    }
+
+    /**
+     * Create select BoundStatement that select several rows which have same primary keys except last clustering key
+     *
+     * @param prefixKeys    All primary key values except last one in primary key order
+     * @param lastKeyValues Values of last clustering key
+     *
+     * @return BoundStatement
+     *
+     * @throws QueryException if IN select is not supported by entity or invalid number of keys was provided
+     */
+    @NotNull
+    BoundStatement bindSelectIn(@NotNull List<Object> prefixKeys, @NotNull Collection<Object> lastKeyValues) {
+        if (selectInStatement == null) {
+            throw new QueryException("Select by IN is supported only for entities with clustering keys");
+        }
+
+        int lastKeyIndex = primaryKeys.length - 1;
+
+        if (prefixKeys.size() != lastKeyIndex) {
+            throw new QueryException(String.format("Invalid number of parameters. Expected: %d Actual: %d", lastKeyIndex, prefixKeys.size()));
+        }
+
+        BoundStatement boundStatement = new BoundStatement(selectInStatement);
+
+        for (int i = 0; i < lastKeyIndex; i++) {
+            boundStatement.setBytesUnsafe(i, primaryKeys[i].serialize(prefixKeys.get(i)));
+        }
+
+        List<ByteBuffer> serializedValues = new ArrayList<>(lastKeyValues.size());
+
+        for (Object value : lastKeyValues) {
+            serializedValues.add(primaryKeys[lastKeyIndex].serialize(value));
+        }
+
+        boundStatement.setBytesUnsafe(lastKeyIndex, IN_VALUES_TYPE.serialize(serializedValues, protocolVersion));
+
+        return boundStatement;
+    }
+
+    /**
+     * Build statement plan for entity
+     *
+     * @param entityMetadata  Entity metadata
+     * @param cassandraClient Cassandra client that will be used to prepare statements
+     *
+     * @return Statement plan
+     *
+     * @throws QueryException if primary keys metadata is inconsistent
+     */
+    static StatementPlan build(@NotNull EntityMetadata entityMetadata, @NotNull CassandraClient cassandraClient) {
+        String keyspace = entityMetadata.getKeyspace();
+        String tableName = entityMetadata.getTableName();
+
+        int primaryKeysSize = entityMetadata.getPrimaryKeysSize();
+
+        PrimaryKeyMetadata[] primaryKeys = new PrimaryKeyMetadata[primaryKeysSize];
+
+        for (int i = 0; i < primaryKeysSize; i++) {
+            Optional<PrimaryKeyMetadata> primaryKey = entityMetadata.getPrimaryKey(i);
+
+            if (!primaryKey.isPresent()) {
+                throw new QueryException(String.format("Invalid primary key index: %d", i));
+            }
+
+            primaryKeys[i] = primaryKey.get();
+        }
+
+        // insert
+        ColumnMetadata[] insertColumns = entityMetadata.getFieldMetaData().toArray(new ColumnMetadata[0]);
+
+        Insert insert = QueryBuilder.insertInto(tableName);
+
+        for (ColumnMetadata column : insertColumns) {
+            insert.value(column.getName(), QueryBuilder.bindMarker());
+        }
+
+        WriteTimestampMetadata writeTimestampMetadata = entityMetadata.getWriteTimestampMetadata();
+
+        if (writeTimestampMetadata != null) {
+            insert.using(QueryBuilder.timestamp(QueryBuilder.bindMarker()));
+        }
+
+        // ttl is constant for entity so it's inlined and doesn't shift bind markers
+        if (entityMetadata.getTtl() > 0) {
+            insert.using(QueryBuilder.ttl(entityMetadata.getTtl()));
+        }
+
+        int[] insertPrimaryKeyIndexes = new int[primaryKeysSize];
+
+        for (int i = 0; i < primaryKeysSize; i++) {
+            insertPrimaryKeyIndexes[i] = Arrays.asList(insertColumns).indexOf(primaryKeys[i]);
+        }
+
+        PreparedStatement insertStatement = cassandraClient.prepare(keyspace, insert.getQueryString());
+        insertStatement.setConsistencyLevel(entityMetadata.getWriteConsistencyLevel());
+
+        // delete
+        Delete.Where delete = QueryBuilder.delete()
+                                          .from(tableName)
+                                          .where();
+
+        for (PrimaryKeyMetadata primaryKey : primaryKeys) {
+            delete.and(QueryBuilder.eq(primaryKey.getName(), QueryBuilder.bindMarker()));
+        }
+
+        if (writeTimestampMetadata != null) {
+            delete.using(QueryBuilder.timestamp(QueryBuilder.bindMarker()));
+        }
+
+        PreparedStatement deleteStatement = cassandraClient.prepare(keyspace, delete.getQueryString());
+        deleteStatement.setConsistencyLevel(entityMetadata.getWriteConsistencyLevel());
+
+        // select by 0 (all records) or by [minPrimaryKeys, primaryKeysSize] keys
+        int minPrimaryKeys = entityMetadata.getMinPrimaryKeys();
+
+        PreparedStatement[] selectStatements = new PreparedStatement[primaryKeysSize + 1];
+
+        for (int keysNumber = 0; keysNumber <= primaryKeysSize; keysNumber++) {
+            if (keysNumber > 0 && keysNumber < minPrimaryKeys) {
+                continue;
+            }
+
+            Select.Where select = QueryBuilder.select()
+                                              .all()
+                                              .from(tableName)
+                                              .where();
+
+            for (int i = 0; i < keysNumber; i++) {
+                select.and(QueryBuilder.eq(primaryKeys[i].getName(), QueryBuilder.bindMarker()));
+            }
+
+            PreparedStatement selectStatement = cassandraClient.prepare(keyspace, select.getQueryString());
+            selectStatement.setConsistencyLevel(entityMetadata.getReadConsistencyLevel());
+
+            selectStatements[keysNumber] = selectStatement;
+        }
+
+        // select by token range
+        String[] partitionKeys = new String[entityMetadata.getPartitionKeySize()];
+
+        for (int i = 0; i < partitionKeys.length; i++) {
+            partitionKeys[i] = primaryKeys[i].getName();
+        }
+
+        Select.Where tokenRangeSelect = QueryBuilder.select()
+                                                    .all()
+                                                    .from(tableName)
+                                                    .where(QueryBuilder.gt(QueryBuilder.token(partitionKeys), QueryBuilder.bindMarker()))
+                                                    .and(QueryBuilder.lte(QueryBuilder.token(partitionKeys), QueryBuilder.bindMarker()));
+
+        PreparedStatement tokenRangeStatement = cassandraClient.prepare(keyspace, tokenRangeSelect.getQueryString());
+
+        // select by IN on last clustering key
+        PreparedStatement selectInStatement = null;
+
+        if (primaryKeysSize > entityMetadata.getPartitionKeySize()) {
+            Select.Where selectIn = QueryBuilder.select()
+                                                .all()
+                                                .from(tableName)
+                                                .where();
+
+            for (int i = 0; i < primaryKeysSize - 1; i++) {
+                selectIn.and(QueryBuilder.eq(primaryKeys[i].getName(), QueryBuilder.bindMarker()));
+            }
+
+            selectIn.and(QueryBuilder.in(primaryKeys[primaryKeysSize - 1].getName(), QueryBuilder.bindMarker()));
+
+            selectInStatement = cassandraClient.prepare(keyspace, selectIn.getQueryString());
+            selectInStatement.setConsistencyLevel(entityMetadata.getReadConsistencyLevel());
+        }
+
+        LOGGER.debug("Complete to build statement plan for {}.{}", keyspace, tableName);
+
+        return new StatementPlan(insertStatement, insertColumns, insertPrimaryKeyIndexes, deleteStatement, primaryKeys, selectStatements, tokenRangeStatement, selectInStatement, minPrimaryKeys, entityMetadata.getPartitionKeySize(),
+                                 writeTimestampMetadata, cassandraClient.getProtocolVersion());
+    }
+}
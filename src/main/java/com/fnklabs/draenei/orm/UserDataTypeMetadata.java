@@ -3,6 +3,8 @@ package com.fnklabs.draenei.orm;
 import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.UDTValue;
 import com.datastax.driver.core.UserType;
+import com.fnklabs.draenei.orm.exception.MetadataException;
+import com.fnklabs.draenei.orm.mapping.Accessors;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -14,6 +16,7 @@ import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -23,19 +26,23 @@ class UserDataTypeMetadata implements ColumnMetadata {
     private final ColumnMetadata columnMetadata;
 
     @NotNull
-    private final Class udtClassType;
+    private final Class<?> udtClassType;
 
     @NotNull
     private final UserType udtType;
 
+    @NotNull
+    private final Supplier<?> udtConstructor;
+
     private Map<String, ColumnMetadata> udtColumnsMetadata = new HashMap<>();
 
-    UserDataTypeMetadata(@NotNull Class udtClassType,
+    UserDataTypeMetadata(@NotNull Class<?> udtClassType,
                          @NotNull UserType udtType,
                          @NotNull ColumnMetadata columnMetadata) {
         this.columnMetadata = columnMetadata;
         this.udtClassType = udtClassType;
         this.udtType = udtType;
+        this.udtConstructor = Accessors.constructor(udtClassType);
 
         try {
             BeanInfo beanInfo = Introspector.getBeanInfo(udtClassType);
@@ -61,6 +68,12 @@ class UserDataTypeMetadata implements ColumnMetadata {
         return columnMetadata.getName();
     }
 
+    @NotNull
+    @Override
+    public String getPropertyName() {
+        return columnMetadata.getPropertyName();
+    }
+
     @NotNull
     @Override
     public Class getFieldType() {
@@ -113,7 +126,7 @@ class UserDataTypeMetadata implements ColumnMetadata {
                                                                                             Object newInstance = toObject(udtValue);
 
                                                                                             return Stream.of(newInstance);
-                                                                                        } catch (InstantiationException | IllegalAccessException e) {
+                                                                                        } catch (MetadataException e) {
                                                                                             LOGGER.warn("Can't map to entity", e);
                                                                                         }
 
@@ -130,15 +143,15 @@ class UserDataTypeMetadata implements ColumnMetadata {
             UDTValue udtValue = (UDTValue) deserializedValue;
             try {
                 return (T) toObject(udtValue);
-            } catch (InstantiationException | IllegalAccessException e) {
+            } catch (MetadataException e) {
                 LOGGER.warn("Can't map to entity", e);
             }
         }
         return null;
     }
 
-    private Object toObject(UDTValue udtValue) throws InstantiationException, IllegalAccessException {
-        Object newInstance = udtClassType.newInstance();
+    private Object toObject(UDTValue udtValue) throws MetadataException {
+        Object newInstance = udtConstructor.get();
 
         udtType.getFieldNames()
                .forEach(fieldName -> {
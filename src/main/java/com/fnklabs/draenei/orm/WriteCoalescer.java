@@ -0,0 +1,251 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Statement;
+import com.fnklabs.metrics.Metrics;
+import com.fnklabs.metrics.MetricsFactory;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesce write statements of one partition that arrive within short time window into single UNLOGGED batch
+ * <p>
+ * Batch is flushed when window is elapsed since first statement of batch or when batch reach max size. If several statements for the same row arrive in one
+ * window only one of them is written (order of statements inside batch can't be used to resolve them): statement with the highest bound write timestamp
+ * (see {@link StatementPlan#getWriteTimestamp(BoundStatement)}) or the last one if timestamps are equal or not bound. Futures of replaced statements are
+ * completed with the result of written one.
+ */
+class WriteCoalescer {
+    /**
+     * Scheduler for delayed flushes, shared by all coalescers because it only hands over flushes to statement execution
+     */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true)
+                                      .setNameFormat("draenei-write-coalescer-%d")
+                                      .build()
+    );
+
+    private static final Metrics METRICS = MetricsFactory.getMetrics();
+
+    private final ConcurrentHashMap<List<ByteBuffer>, PendingBatch> pendingBatches = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final StatementPlan statementPlan;
+
+    /**
+     * Function that execute statement
+     */
+    @NotNull
+    private final Function<Statement, ListenableFuture<ResultSet>> statementExecutor;
+
+    /**
+     * Executor on which statement results will be processed
+     */
+    @NotNull
+    private final Executor executor;
+
+    @NotNull
+    private final ConsistencyLevel consistencyLevel;
+
+    /**
+     * Coalescing window in microseconds
+     */
+    private final long windowMicros;
+
+    private final int maxBatchSize;
+
+    /**
+     * @param statementPlan     Statement plan that was used to create statements
+     * @param statementExecutor Function that execute statement
+     * @param executor          Executor on which statement results will be processed
+     * @param consistencyLevel  Batch consistency level
+     * @param window            Coalescing window
+     * @param timeUnit          Coalescing window time unit
+     * @param maxBatchSize      Max number of statements in batch
+     */
+    WriteCoalescer(@NotNull StatementPlan statementPlan,
+                   @NotNull Function<Statement, ListenableFuture<ResultSet>> statementExecutor,
+                   @NotNull Executor executor,
+                   @NotNull ConsistencyLevel consistencyLevel,
+                   long window,
+                   @NotNull TimeUnit timeUnit,
+                   int maxBatchSize) {
+        this.statementPlan = statementPlan;
+        this.statementExecutor = statementExecutor;
+        this.executor = executor;
+        this.consistencyLevel = consistencyLevel;
+        this.windowMicros = Math.max(timeUnit.toMicros(window), 1);
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+    }
+
+    /**
+     * Add statement to pending batch of its partition
+     *
+     * @param boundStatement Insert or delete statement created by statement plan
+     *
+     * @return Future that will be completed when batch with statement is executed
+     */
+    ListenableFuture<Boolean> submit(@NotNull BoundStatement boundStatement) {
+        List<ByteBuffer> partitionKey = statementPlan.getPartitionKey(boundStatement);
+        List<ByteBuffer> primaryKey = statementPlan.getPrimaryKey(boundStatement);
+
+        SettableFuture<Boolean> future = SettableFuture.create();
+
+        while (true) {
+            PendingBatch pendingBatch = pendingBatches.computeIfAbsent(partitionKey, PendingBatch::new);
+
+            int batchSize = pendingBatch.add(primaryKey, boundStatement, statementPlan.getWriteTimestamp(boundStatement), future);
+
+            if (batchSize < 0) {
+                // batch was flushed concurrently, so new batch must be created
+                continue;
+            }
+
+            if (batchSize >= maxBatchSize) {
+                flush(pendingBatch);
+            } else if (batchSize == 1) {
+                SCHEDULER.schedule(() -> flush(pendingBatch), windowMicros, TimeUnit.MICROSECONDS);
+            }
+
+            return future;
+        }
+    }
+
+    private void flush(@NotNull PendingBatch pendingBatch) {
+        pendingBatches.remove(pendingBatch.partitionKey, pendingBatch);
+
+        Map<List<ByteBuffer>, PendingStatement> statements = pendingBatch.close();
+
+        if (statements == null) {
+            return;
+        }
+
+        METRICS.getCounter("data_provider.write_coalescer.batches").inc();
+
+        Statement statement;
+
+        if (statements.size() == 1) {
+            statement = statements.values().iterator().next().statement;
+        } else {
+            BatchStatement batchStatement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+            batchStatement.setConsistencyLevel(consistencyLevel);
+
+            for (PendingStatement pendingStatement : statements.values()) {
+                batchStatement.add(pendingStatement.statement);
+            }
+
+            statement = batchStatement;
+        }
+
+        ListenableFuture<ResultSet> resultFuture;
+
+        try {
+            resultFuture = statementExecutor.apply(statement);
+        } catch (RuntimeException e) {
+            resultFuture = Futures.immediateFailedFuture(e);
+        }
+
+        Futures.addCallback(resultFuture, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet result) {
+                boolean wasApplied = result.wasApplied();
+
+                statements.values().forEach(pendingStatement -> pendingStatement.futures.forEach(future -> future.set(wasApplied)));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                statements.values().forEach(pendingStatement -> pendingStatement.futures.forEach(future -> future.setException(t)));
+            }
+        }, executor);
+    }
+
+    /**
+     * Statement of one row with futures of all callers that wrote this row in current window
+     */
+    private static class PendingStatement {
+        private final List<SettableFuture<Boolean>> futures = new ArrayList<>(1);
+
+        private BoundStatement statement;
+
+        /**
+         * Write timestamp of statement
+         */
+        private long writeTimestamp = Long.MIN_VALUE;
+    }
+
+    /**
+     * Pending statements of one partition
+     */
+    private static class PendingBatch {
+        private final List<ByteBuffer> partitionKey;
+
+        /**
+         * Pending statements by primary key, null if batch was closed
+         */
+        @Nullable
+        private Map<List<ByteBuffer>, PendingStatement> statements = new LinkedHashMap<>();
+
+        private int size;
+
+        private PendingBatch(List<ByteBuffer> partitionKey) {
+            this.partitionKey = partitionKey;
+        }
+
+        /**
+         * Add statement to batch, pending statement of the same row is replaced only if its write timestamp isn't greater
+         *
+         * @return Number of statements that were added to batch or -1 if batch is already closed
+         */
+        synchronized int add(@NotNull List<ByteBuffer> primaryKey, @NotNull BoundStatement statement, long writeTimestamp, @NotNull SettableFuture<Boolean> future) {
+            if (statements == null) {
+                return -1;
+            }
+
+            PendingStatement pendingStatement = statements.computeIfAbsent(primaryKey, key -> new PendingStatement());
+
+            if (pendingStatement.statement == null || writeTimestamp >= pendingStatement.writeTimestamp) {
+                pendingStatement.statement = statement;
+                pendingStatement.writeTimestamp = writeTimestamp;
+            }
+
+            pendingStatement.futures.add(future);
+
+            return ++size;
+        }
+
+        /**
+         * Close batch
+         *
+         * @return Pending statements or null if batch was already closed
+         */
+        @Nullable
+        synchronized Map<List<ByteBuffer>, PendingStatement> close() {
+            Map<List<ByteBuffer>, PendingStatement> pendingStatements = statements;
+
+            statements = null;
+
+            return pendingStatements;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.fnklabs.draenei.orm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of cache changes that are not persisted yet
+ * <p>
+ * Journal consist of memory-mapped segments of fixed size. Changes are appended to active segment, when it's full or flusher rotates journal segment is
+ * sealed and new one is created on next append. Sealed segments are read by flusher and deleted after their changes are persisted. Segments that are left
+ * after restart are sealed, so they are replayed by first flush. Every record has checksum, reading of segment stops on first incomplete record.
+ * <p>
+ * Record format: {@code [int length][long crc32][byte operation][serialized entity]}, zero length marks end of records.
+ *
+ * @param <Entry> Entity class type
+ */
+class WriteJournal<Entry extends Serializable> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * Record header size: length, checksum and operation
+     */
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Byte.BYTES;
+
+    @NotNull
+    private final Path directory;
+
+    private final int segmentSize;
+
+    /**
+     * Force segment changes to storage device after every append
+     */
+    private final boolean syncEnabled;
+
+    /**
+     * Sequence number of next segment
+     */
+    private long nextSegment;
+
+    /**
+     * Active segment file or null if it's not created yet
+     */
+    @Nullable
+    private Path activeSegment;
+
+    @Nullable
+    private MappedByteBuffer activeBuffer;
+
+    /**
+     * @param directory   Journal directory, must not be shared with other nodes or caches
+     * @param segmentSize Segment size in bytes
+     * @param syncEnabled Force segment changes to storage device after every append, otherwise appended changes survive process crash but not OS crash
+     *
+     * @throws UncheckedIOException if journal directory can't be read
+     */
+    WriteJournal(@NotNull Path directory, int segmentSize, boolean syncEnabled) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncEnabled = syncEnabled;
+
+        try {
+            Files.createDirectories(directory);
+
+            List<Path> segments = listSegments();
+
+            nextSegment = segments.isEmpty() ? 0 : getSequence(segments.get(segments.size() - 1)) + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append change to journal
+     *
+     * @param operation Change operation
+     * @param entity    Changed entity
+     *
+     * @throws IllegalArgumentException if record is bigger than segment
+     * @throws UncheckedIOException     if change can't be written
+     */
+    void append(@NotNull Operation operation, @NotNull Entry entity) {
+        byte[] data = serialize(entity);
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(operation.ordinal());
+        crc32.update(data);
+
+        int recordSize = HEADER_SIZE + data.length;
+
+        // keep space for end marker
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException(String.format("Journal record size %d exceeds segment size %d", recordSize, segmentSize));
+        }
+
+        synchronized (this) {
+            if (activeBuffer == null || activeBuffer.remaining() < recordSize + Integer.BYTES) {
+                openSegment();
+            }
+
+            activeBuffer.putInt(data.length)
+                        .putLong(crc32.getValue())
+                        .put((byte) operation.ordinal())
+                        .put(data);
+
+            if (syncEnabled) {
+                activeBuffer.force();
+            }
+        }
+    }
+
+    /**
+     * Seal active segment if it has records and return all sealed segments
+     *
+     * @return Sealed segments in append order
+     *
+     * @throws UncheckedIOException if journal directory can't be read
+     */
+    @NotNull
+    synchronized List<Path> rotate() {
+        if (activeBuffer != null && activeBuffer.position() > 0) {
+            activeBuffer.force();
+
+            activeSegment = null;
+            activeBuffer = null;
+        }
+
+        try {
+            List<Path> segments = listSegments();
+
+            if (activeSegment != null) {
+                segments.remove(activeSegment);
+            }
+
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read records of sealed segment
+     *
+     * @param segment  Segment file
+     * @param consumer Records consumer
+     *
+     * @return Number of read records
+     *
+     * @throws UncheckedIOException if segment can't be read
+     */
+    int read(@NotNull Path segment, @NotNull BiConsumer<Operation, Entry> consumer) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            int records = 0;
+
+            try {
+                while (buffer.remaining() >= HEADER_SIZE) {
+                    int length = buffer.getInt();
+
+                    if (length <= 0 || length > buffer.remaining() - Long.BYTES - Byte.BYTES) {
+                        break;
+                    }
+
+                    long checksum = buffer.getLong();
+                    byte operation = buffer.get();
+
+                    byte[] data = new byte[length];
+                    buffer.get(data);
+
+                    CRC32 crc32 = new CRC32();
+                    crc32.update(operation);
+                    crc32.update(data);
+
+                    if (crc32.getValue() != checksum || operation < 0 || operation >= Operation.values().length) {
+                        LOGGER.warn("Journal segment {} has corrupted record at {}", segment, buffer.position());
+                        break;
+                    }
+
+                    consumer.accept(Operation.values()[operation], deserialize(data));
+
+                    records++;
+                }
+            } catch (BufferUnderflowException e) {
+                LOGGER.warn("Journal segment {} is truncated", segment);
+            }
+
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete segment which changes were persisted
+     *
+     * @param segment Segment file
+     *
+     * @throws UncheckedIOException if segment can't be deleted
+     */
+    void delete(@NotNull Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openSegment() {
+        if (activeBuffer != null) {
+            activeBuffer.force();
+        }
+
+        Path segment = directory.resolve(String.format("%020d%s", nextSegment++, SEGMENT_SUFFIX));
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            activeBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            activeSegment = segment;
+        } catch (IOException e) {
+            activeBuffer = null;
+            activeSegment = null;
+
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @NotNull
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            directoryStream.forEach(segments::add);
+        }
+
+        Collections.sort(segments);
+
+        return segments;
+    }
+
+    private static long getSequence(@NotNull Path segment) {
+        String fileName = segment.getFileName().toString();
+
+        return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @NotNull
+    private static byte[] serialize(@NotNull Serializable entity) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(entity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private Entry deserialize(@NotNull byte[] data) throws IOException {
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Entry) objectInputStream.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Can't deserialize journal record", e);
+        }
+    }
+
+    enum Operation {
+        PUT,
+        REMOVE
+    }
+}
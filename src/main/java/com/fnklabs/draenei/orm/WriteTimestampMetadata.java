@@ -0,0 +1,93 @@
+package com.fnklabs.draenei.orm;
+
+import com.fnklabs.draenei.orm.annotations.WriteTimestamp;
+import com.fnklabs.draenei.orm.exception.MetadataException;
+import com.fnklabs.draenei.orm.mapping.Accessors;
+import org.jetbrains.annotations.NotNull;
+
+import java.beans.PropertyDescriptor;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Metadata of entity field annotated by {@link WriteTimestamp}
+ */
+class WriteTimestampMetadata {
+    /**
+     * Generated field read accessor
+     */
+    @NotNull
+    private final Function<Object, Object> readAccessor;
+
+    /**
+     * Time unit of long field value
+     */
+    @NotNull
+    private final TimeUnit unit;
+
+    /**
+     * @param readAccessor Field read accessor
+     * @param unit         Time unit of long field value
+     */
+    WriteTimestampMetadata(@NotNull Function<Object, Object> readAccessor, @NotNull TimeUnit unit) {
+        this.readAccessor = readAccessor;
+        this.unit = unit;
+    }
+
+    /**
+     * Read write timestamp from entity
+     *
+     * @param entity Entity
+     *
+     * @return Write timestamp in microseconds, current time if field value is null or not positive
+     */
+    long readTimestamp(@NotNull Object entity) {
+        Object value = readAccessor.apply(entity);
+
+        long timestamp = 0;
+
+        if (value instanceof Date) {
+            timestamp = TimeUnit.MILLISECONDS.toMicros(((Date) value).getTime());
+        } else if (value instanceof Long) {
+            timestamp = unit.toMicros((Long) value);
+        }
+
+        return timestamp > 0 ? timestamp : getCurrentTimestamp();
+    }
+
+    /**
+     * Get current time as write timestamp
+     *
+     * @return Current time in microseconds
+     */
+    static long getCurrentTimestamp() {
+        return TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+
+    /**
+     * Build metadata of write timestamp field
+     *
+     * @param propertyDescriptor Field property descriptor
+     * @param clazz              Entity class
+     * @param annotation         Field annotation
+     *
+     * @return Write timestamp metadata
+     *
+     * @throws MetadataException if field type is not supported or field has no read method
+     */
+    @NotNull
+    static WriteTimestampMetadata build(@NotNull PropertyDescriptor propertyDescriptor, @NotNull Class<?> clazz, @NotNull WriteTimestamp annotation) {
+        Class<?> type = propertyDescriptor.getPropertyType();
+
+        if (type != long.class && type != Long.class && type != Date.class) {
+            throw new MetadataException(String.format("Write timestamp %s#%s must be long or Date", clazz.getName(), propertyDescriptor.getName()));
+        }
+
+        if (propertyDescriptor.getReadMethod() == null) {
+            throw new MetadataException(String.format("Can't retrieve read method for %s#%s", clazz.getName(), propertyDescriptor.getName()));
+        }
+
+        return new WriteTimestampMetadata(Accessors.getter(propertyDescriptor.getReadMethod()), annotation.unit());
+    }
+}
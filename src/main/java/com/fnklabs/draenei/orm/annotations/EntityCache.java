@@ -0,0 +1,122 @@
+package com.fnklabs.draenei.orm.annotations;
+
+import org.apache.ignite.cache.CacheMemoryMode;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ignite cache configuration of entity that is used by {@code CacheableDataProvider}
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EntityCache {
+    /**
+     * Cache memory mode
+     *
+     * @return Memory mode
+     */
+    CacheMemoryMode memoryMode() default CacheMemoryMode.ONHEAP_TIERED;
+
+    /**
+     * On-heap eviction policy, in {@link CacheMemoryMode#OFFHEAP_TIERED} mode entries are stored off-heap and bounded only by {@link #offHeapMaxMemory()}
+     *
+     * @return Eviction policy
+     */
+    EvictionPolicy evictionPolicy() default EvictionPolicy.LRU;
+
+    /**
+     * Max number of on-heap entries
+     *
+     * @return Max number of entries or 0 if number of entries is not limited
+     */
+    int maxEntries() default 100000;
+
+    /**
+     * Max memory size of on-heap entries
+     *
+     * @return Max memory size in bytes or 0 if memory size is not limited
+     */
+    long maxMemory() default 0;
+
+    /**
+     * Max off-heap memory size
+     *
+     * @return Max off-heap memory in bytes, 0 to disable off-heap storage or -1 if off-heap memory is not limited
+     */
+    long offHeapMaxMemory() default -1;
+
+    /**
+     * Number of backups
+     *
+     * @return Number of backups
+     */
+    int backups() default 0;
+
+    /**
+     * Entry expiry time
+     *
+     * @return Expiry time in milliseconds or 0 if entries never expire
+     */
+    long expiry() default 0;
+
+    /**
+     * Event from which entry expiry time is counted
+     *
+     * @return Expiry type
+     */
+    ExpiryType expiryType() default ExpiryType.CREATED;
+
+    /**
+     * Whether near cache must be created on nodes that request entries
+     *
+     * @return True if near cache is enabled
+     */
+    boolean nearCache() default false;
+
+    /**
+     * Max number of near cache entries (LRU)
+     *
+     * @return Max number of near cache entries
+     */
+    int nearCacheMaxEntries() default 10000;
+
+    /**
+     * Store entries off-heap in Ignite binary form and allow to read entry fields without deserialization of whole entry. Requires binary marshaller, if
+     * memory mode is {@link CacheMemoryMode#ONHEAP_TIERED} it's replaced by {@link CacheMemoryMode#OFFHEAP_VALUES}. Entity must not be
+     * {@link java.io.Externalizable} or declare {@code writeObject}/{@code readObject} methods, because such classes are not stored with fields
+     *
+     * @return True if binary storage is enabled
+     */
+    boolean binaryStorage() default false;
+
+    enum EvictionPolicy {
+        LRU,
+        FIFO,
+        /**
+         * Entries are not evicted
+         */
+        NONE
+    }
+
+    enum ExpiryType {
+        /**
+         * Expiry time is counted from entry creation
+         */
+        CREATED,
+        /**
+         * Expiry time is counted from entry creation or last update
+         */
+        MODIFIED,
+        /**
+         * Expiry time is counted from entry creation or last access
+         */
+        ACCESSED,
+        /**
+         * Expiry time is counted from entry creation, last update or last access
+         */
+        TOUCHED
+    }
+}
@@ -47,4 +47,11 @@ public @interface Table {
      * @return Consistency level
      */
     ConsistencyLevel writeConsistencyLevel() default ConsistencyLevel.QUORUM;
+
+    /**
+     * Time to live of inserted rows, it's bound as {@code USING TTL} of insert statement and used as cache expiry time of entity
+     *
+     * @return TTL in seconds or 0 if rows never expire
+     */
+    int ttl() default 0;
 }
@@ -0,0 +1,25 @@
+package com.fnklabs.draenei.orm.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity version field that is used as Cassandra write timestamp ({@code USING TIMESTAMP}) of insert and delete statements
+ * <p>
+ * Cassandra resolves conflicting writes by timestamp, so write of older entity version is ignored even if it's applied after write of newer one. Field must
+ * be {@code long}, {@link Long} or {@link java.util.Date} and can be a column as well. If field value is null or not positive current time is used.
+ * Version must grow with every change of entity, otherwise later change can be discarded.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WriteTimestamp {
+    /**
+     * Time unit of {@code long} field value, ignored for {@link java.util.Date} field
+     *
+     * @return Field value time unit
+     */
+    TimeUnit unit() default TimeUnit.MICROSECONDS;
+}
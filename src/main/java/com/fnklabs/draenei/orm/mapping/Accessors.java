@@ -0,0 +1,235 @@
+package com.fnklabs.draenei.orm.mapping;
+
+import com.fnklabs.draenei.orm.exception.MetadataException;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Accessors factory
+ * <p>
+ * Generate getters, setters and constructors of entity classes through {@link LambdaMetafactory}, so reading and writing properties is a plain monomorphic
+ * interface call instead of {@link Method#invoke(Object, Object...)}. If lambda can't be generated for class (non public class or class that is not visible
+ * from current class loader) accessor will fall back to {@link MethodHandle}.
+ */
+public final class Accessors {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Accessors.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private Accessors() {
+    }
+
+    /**
+     * Build getter for property read method
+     *
+     * @param readMethod Property read method
+     *
+     * @return Function that return property value for provided object
+     *
+     * @throws MetadataException if can't access read method
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static Function<Object, Object> getter(@NotNull Method readMethod) {
+        MethodHandle methodHandle = unreflect(readMethod);
+
+        if (isLambdaSupported(readMethod)) {
+            try {
+                MethodType instantiatedMethodType = MethodType.methodType(wrap(readMethod.getReturnType()), readMethod.getDeclaringClass());
+
+                CallSite callSite = LambdaMetafactory.metafactory(
+                        LOOKUP,
+                        "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        methodHandle,
+                        instantiatedMethodType
+                );
+
+                return (Function<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                LOGGER.debug(String.format("Can't generate getter for %s, method handle will be used", readMethod), e);
+            }
+        }
+
+        MethodHandle genericMethodHandle = methodHandle.asType(MethodType.methodType(Object.class, Object.class));
+
+        return object -> {
+            try {
+                return genericMethodHandle.invokeExact(object);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * Build setter for property write method
+     *
+     * @param writeMethod Property write method
+     *
+     * @return BiConsumer that accept object and new property value
+     *
+     * @throws MetadataException if can't access write method
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static BiConsumer<Object, Object> setter(@NotNull Method writeMethod) {
+        MethodHandle methodHandle = unreflect(writeMethod);
+
+        if (isLambdaSupported(writeMethod)) {
+            try {
+                MethodType instantiatedMethodType = MethodType.methodType(void.class, writeMethod.getDeclaringClass(), wrap(writeMethod.getParameterTypes()[0]));
+
+                CallSite callSite = LambdaMetafactory.metafactory(
+                        LOOKUP,
+                        "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        methodHandle,
+                        instantiatedMethodType
+                );
+
+                return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                LOGGER.debug(String.format("Can't generate setter for %s, method handle will be used", writeMethod), e);
+            }
+        }
+
+        MethodHandle genericMethodHandle = methodHandle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+        return (object, value) -> {
+            try {
+                genericMethodHandle.invokeExact(object, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * Build constructor for class with default (no args) constructor
+     *
+     * @param clazz Class type
+     * @param <T>   Class type
+     *
+     * @return Supplier that create new instance on each call. If class doesn't have accessible default constructor supplier will throw {@link
+     * MetadataException}
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static <T> Supplier<T> constructor(@NotNull Class<T> clazz) {
+        MethodHandle methodHandle;
+
+        try {
+            methodHandle = LOOKUP.findConstructor(clazz, MethodType.methodType(void.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            try {
+                Constructor<T> declaredConstructor = clazz.getDeclaredConstructor();
+                declaredConstructor.setAccessible(true);
+
+                methodHandle = LOOKUP.unreflectConstructor(declaredConstructor);
+            } catch (NoSuchMethodException | IllegalAccessException | SecurityException ex) {
+                LOGGER.warn(String.format("Can't retrieve default constructor for %s", clazz.getName()), ex);
+
+                return () -> {
+                    throw new MetadataException(String.format("Can't retrieve default constructor for %s", clazz.getName()), ex);
+                };
+            }
+        }
+
+        if (Modifier.isPublic(clazz.getModifiers()) && isVisible(clazz)) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(
+                        LOOKUP,
+                        "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        methodHandle,
+                        MethodType.methodType(clazz)
+                );
+
+                return (Supplier<T>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                LOGGER.debug(String.format("Can't generate constructor for %s, method handle will be used", clazz.getName()), e);
+            }
+        }
+
+        MethodHandle genericMethodHandle = methodHandle.asType(MethodType.methodType(Object.class));
+
+        return () -> {
+            try {
+                return (T) genericMethodHandle.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    @NotNull
+    private static MethodHandle unreflect(@NotNull Method method) {
+        try {
+            if (!isPublic(method)) {
+                method.setAccessible(true);
+            }
+
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException | SecurityException e) {
+            throw new MetadataException(String.format("Can't access method %s", method), e);
+        }
+    }
+
+    /**
+     * Check whether lambda can be generated for method. Generated lambda is defined by current class so method and its class must be accessible from here
+     *
+     * @param method Method
+     *
+     * @return True if lambda can be generated
+     */
+    private static boolean isLambdaSupported(@NotNull Method method) {
+        return isPublic(method) && isVisible(method.getDeclaringClass());
+    }
+
+    private static boolean isPublic(@NotNull Method method) {
+        return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+
+    /**
+     * Check whether class is visible from current class loader
+     *
+     * @param clazz Class
+     *
+     * @return True if class can be loaded by class loader of current class
+     */
+    private static boolean isVisible(@NotNull Class<?> clazz) {
+        try {
+            return Class.forName(clazz.getName(), false, Accessors.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @NotNull
+    private static Class<?> wrap(@NotNull Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
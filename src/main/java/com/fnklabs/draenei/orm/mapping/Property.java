@@ -5,8 +5,9 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 public class Property {
     public static final Logger LOGGER = LoggerFactory.getLogger(Property.class);
@@ -14,10 +15,10 @@ public class Property {
     private final String name;
 
     @NotNull
-    private final Method readMethod;
+    private final Function<Object, Object> readAccessor;
 
     @NotNull
-    private final Method writeMethod;
+    private final BiConsumer<Object, Object> writeAccessor;
 
     @NotNull
     private final Class propertyClassType;
@@ -29,8 +30,8 @@ public class Property {
 
     public Property(String name, Method readMethod, Method writeMethod, Class propertyClassType) {
         this.name = name;
-        this.readMethod = readMethod;
-        this.writeMethod = writeMethod;
+        this.readAccessor = Accessors.getter(readMethod);
+        this.writeAccessor = Accessors.setter(writeMethod);
         this.propertyClassType = propertyClassType;
     }
 
@@ -39,8 +40,8 @@ public class Property {
      */
     public void writeValue(@NotNull Object entity, @Nullable Object value) {
         try {
-            getWriteMethod().invoke(entity, value);
-        } catch (InvocationTargetException | IllegalAccessException e) {
+            writeAccessor.accept(entity, value);
+        } catch (RuntimeException e) {
             LOGGER.warn("Can't invoker write method", e);
         }
     }
@@ -51,21 +52,11 @@ public class Property {
     @Nullable
     public <FieldType> FieldType readValue(@NotNull Object object) {
         try {
-            return (FieldType) getReadMethod().invoke(object);
-        } catch (IllegalAccessException | InvocationTargetException | ClassCastException e) {
-            LOGGER.warn("Can't invoke read method: " + getReadMethod().getName(), e);
+            return (FieldType) readAccessor.apply(object);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Can't invoke read method: " + getName(), e);
         }
 
         return null;
     }
-
-    @NotNull
-    private Method getReadMethod() {
-        return readMethod;
-    }
-
-    @NotNull
-    private Method getWriteMethod() {
-        return writeMethod;
-    }
 }
@@ -0,0 +1,55 @@
+package com.fnklabs.draenei.orm;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteMessaging;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.TimeUnit;
+
+public class AbsentKeyFilterTest {
+    private AbsentKeyFilter absentKeyFilter;
+
+    @Before
+    public void setUp() throws Exception {
+        Ignite ignite = Mockito.mock(Ignite.class);
+
+        Mockito.when(ignite.message()).thenReturn(Mockito.mock(IgniteMessaging.class));
+
+        absentKeyFilter = new AbsentKeyFilter(ignite, "test", 100, 1, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void testMarkAbsent() throws Exception {
+        long saveGeneration = absentKeyFilter.getSaveGeneration(1);
+
+        Assert.assertFalse(absentKeyFilter.isAbsent(1));
+
+        absentKeyFilter.markAbsent(1, saveGeneration);
+
+        Assert.assertTrue(absentKeyFilter.isAbsent(1));
+        Assert.assertFalse(absentKeyFilter.isAbsent(2));
+
+        absentKeyFilter.onSaveLocal(1);
+
+        Assert.assertFalse(absentKeyFilter.isAbsent(1));
+    }
+
+    @Test
+    public void testMarkAbsentAfterConcurrentSave() throws Exception {
+        long saveGeneration = absentKeyFilter.getSaveGeneration(1);
+
+        // key is saved while it's read from persistence storage
+        absentKeyFilter.onSaveLocal(1);
+
+        absentKeyFilter.markAbsent(1, saveGeneration);
+
+        Assert.assertFalse(absentKeyFilter.isAbsent(1));
+
+        absentKeyFilter.markAbsent(1, absentKeyFilter.getSaveGeneration(1));
+
+        Assert.assertTrue(absentKeyFilter.isAbsent(1));
+    }
+}
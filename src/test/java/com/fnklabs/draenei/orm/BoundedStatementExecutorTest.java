@@ -0,0 +1,201 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.fnklabs.draenei.CassandraClient;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.Mockito.when;
+
+public class BoundedStatementExecutorTest {
+    private CassandraClient cassandraClient;
+
+    /**
+     * Futures of sent statements
+     */
+    private Map<Statement, TestResultSetFuture> sentStatements;
+
+    private List<Statement> statements;
+
+    /**
+     * Result of each statement
+     */
+    private Map<ResultSet, Integer> resultSets;
+
+    @Before
+    public void setUp() throws Exception {
+        sentStatements = new IdentityHashMap<>();
+        resultSets = new IdentityHashMap<>();
+        statements = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            statements.add(new SimpleStatement("SELECT * FROM test WHERE id = " + i));
+        }
+
+        cassandraClient = Mockito.mock(CassandraClient.class);
+
+        when(cassandraClient.executeAsync(Matchers.eq("test"), Matchers.any(Statement.class))).then(invocation -> {
+            TestResultSetFuture resultSetFuture = new TestResultSetFuture();
+
+            sentStatements.put((Statement) invocation.getArguments()[1], resultSetFuture);
+
+            return resultSetFuture;
+        });
+    }
+
+    @Test
+    public void testExecuteEmpty() throws Exception {
+        ListenableFuture<List<Integer>> future = execute(Collections.emptyList(), 2);
+
+        Assert.assertEquals(Collections.emptyList(), future.get());
+        Assert.assertTrue(sentStatements.isEmpty());
+    }
+
+    @Test
+    public void testMaxInFlight() throws Exception {
+        ListenableFuture<List<Integer>> future = execute(statements, 2);
+
+        assertSent(0, 1);
+
+        complete(1);
+
+        assertSent(0, 1, 2);
+
+        complete(0);
+        complete(2);
+
+        assertSent(0, 1, 2, 3, 4);
+        Assert.assertFalse(future.isDone());
+
+        // results are in statements order regardless of completion order
+        complete(4);
+        complete(3);
+
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), future.get());
+    }
+
+    @Test
+    public void testMaxInFlightGreaterThanStatements() throws Exception {
+        ListenableFuture<List<Integer>> future = execute(statements.subList(0, 2), 10);
+
+        assertSent(0, 1);
+
+        complete(0);
+        complete(1);
+
+        Assert.assertEquals(Arrays.asList(0, 1), future.get());
+    }
+
+    @Test
+    public void testStopOnFailure() throws Exception {
+        ListenableFuture<List<Integer>> future = execute(statements, 2);
+
+        IllegalStateException exception = new IllegalStateException("read timeout");
+
+        sentStatements.get(statements.get(0)).setException(exception);
+
+        assertFailed(future, exception);
+
+        // completion of in flight statement doesn't send remaining statements
+        complete(1);
+
+        assertSent(0, 1);
+    }
+
+    @Test
+    public void testFailOnResultMapperException() throws Exception {
+        IllegalStateException exception = new IllegalStateException("invalid row");
+
+        ListenableFuture<List<Integer>> future = BoundedStatementExecutor.execute(cassandraClient, "test", statements, 1, resultSet -> {
+            throw exception;
+        }, MoreExecutors.directExecutor());
+
+        complete(0);
+
+        assertFailed(future, exception);
+        assertSent(0);
+    }
+
+    private ListenableFuture<List<Integer>> execute(List<Statement> statements, int maxInFlight) {
+        return BoundedStatementExecutor.execute(cassandraClient, "test", statements, maxInFlight, resultSets::get, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Complete statement with result that is equal to statement index
+     */
+    private void complete(int statementIndex) {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+
+        resultSets.put(resultSet, statementIndex);
+
+        sentStatements.get(statements.get(statementIndex)).set(resultSet);
+    }
+
+    private void assertSent(int... statementIndexes) {
+        Assert.assertEquals(statementIndexes.length, sentStatements.size());
+
+        for (int statementIndex : statementIndexes) {
+            Assert.assertTrue(sentStatements.containsKey(statements.get(statementIndex)));
+        }
+    }
+
+    private static void assertFailed(ListenableFuture<?> future, Throwable expectedCause) throws InterruptedException {
+        try {
+            future.get();
+
+            Assert.fail("Future must be failed");
+        } catch (ExecutionException e) {
+            Assert.assertSame(expectedCause, e.getCause());
+        }
+    }
+
+    private static class TestResultSetFuture extends AbstractFuture<ResultSet> implements ResultSetFuture {
+        @Override
+        public ResultSet getUninterruptibly() {
+            try {
+                return Uninterruptibles.getUninterruptibly(this);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        @Override
+        public ResultSet getUninterruptibly(long timeout, TimeUnit unit) throws TimeoutException {
+            try {
+                return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        @Override
+        protected boolean set(ResultSet value) {
+            return super.set(value);
+        }
+
+        @Override
+        protected boolean setException(Throwable throwable) {
+            return super.setException(throwable);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.fnklabs.draenei.orm;
+
+import com.fnklabs.draenei.orm.annotations.EntityCache;
+import com.fnklabs.draenei.orm.annotations.Table;
+import com.fnklabs.draenei.orm.exception.MetadataException;
+import org.apache.ignite.cache.CacheMemoryMode;
+import org.apache.ignite.cache.eviction.fifo.FifoEvictionPolicy;
+import org.apache.ignite.cache.eviction.lru.LruEvictionPolicy;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.cache.expiry.Duration;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class CacheUtilsTest {
+
+    @Test
+    public void testDefaultCacheConfiguration() throws Exception {
+        CacheConfiguration<Object, TestEntity> cacheConfiguration = CacheUtils.getDefaultCacheConfiguration(TestEntity.class);
+
+        Assert.assertEquals(CacheMemoryMode.ONHEAP_TIERED, cacheConfiguration.getMemoryMode());
+        Assert.assertEquals(0, cacheConfiguration.getBackups());
+        Assert.assertEquals(100000, ((LruEvictionPolicy) cacheConfiguration.getEvictionPolicy()).getMaxSize());
+        Assert.assertNull(cacheConfiguration.getNearConfiguration());
+    }
+
+    @Test
+    public void testOffHeapEntityCacheConfiguration() throws Exception {
+        CacheConfiguration<Object, OffHeapEntity> cacheConfiguration = CacheUtils.getDefaultCacheConfiguration(OffHeapEntity.class);
+
+        Assert.assertEquals(CacheMemoryMode.OFFHEAP_TIERED, cacheConfiguration.getMemoryMode());
+        Assert.assertEquals(1024L * 1024 * 1024, cacheConfiguration.getOffHeapMaxMemory());
+        Assert.assertEquals(1, cacheConfiguration.getBackups());
+        Assert.assertNull(cacheConfiguration.getEvictionPolicy());
+        Assert.assertEquals(new Duration(TimeUnit.MILLISECONDS, 60000), cacheConfiguration.getExpiryPolicyFactory().create().getExpiryForUpdate());
+    }
+
+    @Test
+    public void testOnHeapEntityCacheConfiguration() throws Exception {
+        CacheConfiguration<Object, OnHeapEntity> cacheConfiguration = CacheUtils.getDefaultCacheConfiguration(OnHeapEntity.class);
+
+        FifoEvictionPolicy evictionPolicy = (FifoEvictionPolicy) cacheConfiguration.getEvictionPolicy();
+
+        Assert.assertEquals(10000, evictionPolicy.getMaxSize());
+        Assert.assertEquals(1024 * 1024, evictionPolicy.getMaxMemorySize());
+        Assert.assertNotNull(cacheConfiguration.getNearConfiguration());
+        Assert.assertEquals(100, ((LruEvictionPolicy) cacheConfiguration.getNearConfiguration().getNearEvictionPolicy()).getMaxSize());
+    }
+
+    @Test
+    public void testBinaryStorageEntityCacheConfiguration() throws Exception {
+        CacheConfiguration<Object, BinaryEntity> cacheConfiguration = CacheUtils.getDefaultCacheConfiguration(BinaryEntity.class);
+
+        Assert.assertEquals(CacheMemoryMode.OFFHEAP_VALUES, cacheConfiguration.getMemoryMode());
+        Assert.assertTrue(CacheUtils.isBinaryStorageEnabled(BinaryEntity.class));
+        Assert.assertFalse(CacheUtils.isBinaryStorageEnabled(OffHeapEntity.class));
+    }
+
+    @Test
+    public void testValidateBinaryStorage() throws Exception {
+        CacheUtils.validateBinaryStorage(BinaryEntity.class);
+    }
+
+    @Test(expected = MetadataException.class)
+    public void testValidateBinaryStorageOfExternalizableEntity() throws Exception {
+        CacheUtils.validateBinaryStorage(ExternalizableEntity.class);
+    }
+
+    @Test(expected = MetadataException.class)
+    public void testValidateBinaryStorageOfCustomSerializationEntity() throws Exception {
+        CacheUtils.validateBinaryStorage(CustomSerializationChildEntity.class);
+    }
+
+    @Test
+    public void testQueryCacheConfiguration() throws Exception {
+        CacheConfiguration<Object, ArrayList<TestEntity>> cacheConfiguration = CacheUtils.getQueryCacheConfiguration("test", 1000);
+
+        Assert.assertEquals("test.queries", cacheConfiguration.getName());
+        Assert.assertFalse(cacheConfiguration.isWriteThrough());
+        Assert.assertEquals(new Duration(TimeUnit.MILLISECONDS, 1000), cacheConfiguration.getExpiryPolicyFactory().create().getExpiryForCreation());
+    }
+
+    @Test
+    public void testTtlEntityCacheConfiguration() throws Exception {
+        CacheConfiguration<Object, TtlEntity> cacheConfiguration = CacheUtils.getDefaultCacheConfiguration(TtlEntity.class);
+
+        Assert.assertEquals(new Duration(TimeUnit.SECONDS, 3600), cacheConfiguration.getExpiryPolicyFactory().create().getExpiryForUpdate());
+        Assert.assertEquals(TimeUnit.HOURS.toMillis(1), CacheUtils.getExpiry(cacheConfiguration));
+        Assert.assertEquals(60000, CacheUtils.getExpiry(CacheUtils.getDefaultCacheConfiguration(OffHeapEntity.class)));
+        Assert.assertEquals(0, CacheUtils.getExpiry(CacheUtils.getDefaultCacheConfiguration(TestEntity.class)));
+    }
+
+    @EntityCache(memoryMode = CacheMemoryMode.OFFHEAP_TIERED,
+            evictionPolicy = EntityCache.EvictionPolicy.NONE,
+            offHeapMaxMemory = 1024L * 1024 * 1024,
+            backups = 1,
+            expiry = 60000,
+            expiryType = EntityCache.ExpiryType.MODIFIED)
+    private static class OffHeapEntity {
+    }
+
+    @EntityCache(evictionPolicy = EntityCache.EvictionPolicy.FIFO,
+            maxEntries = 10000,
+            maxMemory = 1024 * 1024,
+            nearCache = true,
+            nearCacheMaxEntries = 100)
+    private static class OnHeapEntity {
+    }
+
+    @EntityCache(binaryStorage = true)
+    private static class BinaryEntity {
+    }
+
+    @EntityCache(binaryStorage = true)
+    public static class ExternalizableEntity implements Externalizable {
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        }
+    }
+
+    private static class CustomSerializationEntity implements Serializable {
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+        }
+    }
+
+    @EntityCache(binaryStorage = true)
+    private static class CustomSerializationChildEntity extends CustomSerializationEntity {
+    }
+
+    @Table(name = "ttl_entity", ttl = 3600)
+    private static class TtlEntity {
+    }
+}
@@ -0,0 +1,73 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.DataType;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteMessaging;
+import org.apache.ignite.lang.IgniteBiPredicate;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class EntityChangeFeedTest {
+    private static final PrimaryKeyMetadata[] PRIMARY_KEYS = {
+            new PrimaryKeyMetadata(new KeyHasherTest.TestColumn(DataType.text()), 0, true)
+    };
+
+    private static final String TOPIC = "draenei.changes.com.fnklabs.draenei.orm.testentity";
+
+    private IgniteMessaging messaging;
+
+    private EntityChangeFeed changeFeed;
+
+    @Before
+    public void setUp() throws Exception {
+        Ignite ignite = Mockito.mock(Ignite.class);
+        messaging = Mockito.mock(IgniteMessaging.class);
+
+        Mockito.when(ignite.message()).thenReturn(messaging);
+
+        changeFeed = new EntityChangeFeed(ignite);
+    }
+
+    @Test
+    public void testPublish() throws Exception {
+        EntityChangeEvent event = new EntityChangeEvent(TestEntity.class, EntityChangeEvent.ChangeType.SAVE, buildKey("first"));
+
+        changeFeed.publish(TestEntity.class, Collections.emptyList());
+
+        Mockito.verifyZeroInteractions(messaging);
+
+        changeFeed.publish(TestEntity.class, Collections.singletonList(event));
+
+        Mockito.verify(messaging).send(TOPIC, (Object) new ArrayList<>(Collections.singletonList(event)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSubscribe() throws Exception {
+        List<EntityChangeEvent> receivedEvents = new ArrayList<>();
+
+        changeFeed.subscribe(TestEntity.class, receivedEvents::addAll);
+
+        ArgumentCaptor<IgniteBiPredicate> listener = ArgumentCaptor.forClass(IgniteBiPredicate.class);
+
+        Mockito.verify(messaging).localListen(Mockito.eq(TOPIC), listener.capture());
+
+        EntityChangeEvent event = new EntityChangeEvent(TestEntity.class, EntityChangeEvent.ChangeType.REMOVE, buildKey("second"));
+
+        Assert.assertTrue(listener.getValue().apply(UUID.randomUUID(), Collections.singletonList(event)));
+        Assert.assertEquals(Collections.singletonList(event), receivedEvents);
+        Assert.assertEquals(TestEntity.class.getName(), receivedEvents.get(0).getEntityClassName());
+    }
+
+    private static EntityKey buildKey(String id) {
+        return EntityKey.build(PRIMARY_KEYS, Collections.singletonList(id), 1);
+    }
+}
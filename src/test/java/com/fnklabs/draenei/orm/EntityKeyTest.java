@@ -0,0 +1,76 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.google.common.base.Strings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public class EntityKeyTest {
+    private static final PrimaryKeyMetadata[] PRIMARY_KEYS = {
+            new PrimaryKeyMetadata(new KeyHasherTest.TestColumn(DataType.uuid()), 0, true),
+            new PrimaryKeyMetadata(new KeyHasherTest.TestColumn(DataType.text()), 1, false),
+            new PrimaryKeyMetadata(new KeyHasherTest.TestColumn(DataType.cint()), 2, false)
+    };
+
+    @Test
+    public void testEquals() throws Exception {
+        UUID id = UUID.randomUUID();
+
+        EntityKey first = EntityKey.build(PRIMARY_KEYS, Arrays.asList(id, "test", 1), 1);
+        EntityKey second = EntityKey.build(PRIMARY_KEYS, Arrays.asList(id, "test", 1), 1);
+        EntityKey third = EntityKey.build(PRIMARY_KEYS, Arrays.asList(id, "test", 2), 1);
+
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+        Assert.assertNotEquals(first, third);
+
+        // entries of one partition have same affinity
+        Assert.assertEquals(first.getPartitionHash(), third.getPartitionHash());
+    }
+
+    @Test
+    public void testGetValues() throws Exception {
+        UUID id = UUID.randomUUID();
+        String longValue = Strings.repeat("a", 300);
+
+        List<ByteBuffer> values = EntityKey.build(PRIMARY_KEYS, Arrays.asList(id, longValue, null), 1).getValues();
+
+        Assert.assertEquals(3, values.size());
+        Assert.assertEquals(id, DataType.uuid().deserialize(values.get(0), ProtocolVersion.NEWEST_SUPPORTED));
+        Assert.assertEquals(longValue, DataType.text().deserialize(values.get(1), ProtocolVersion.NEWEST_SUPPORTED));
+        Assert.assertNull(values.get(2));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        EntityKey entityKey = EntityKey.build(PRIMARY_KEYS, Arrays.asList(UUID.randomUUID(), "test"), 1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(out)) {
+            objectOutputStream.writeObject(entityKey);
+        }
+
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            EntityKey deserializedKey = (EntityKey) objectInputStream.readObject();
+
+            Assert.assertEquals(entityKey, deserializedKey);
+            Assert.assertEquals(entityKey.hashCode(), deserializedKey.hashCode());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyKeys() throws Exception {
+        EntityKey.build(PRIMARY_KEYS, Arrays.asList(UUID.randomUUID(), "test", 1, 2), 1);
+    }
+}
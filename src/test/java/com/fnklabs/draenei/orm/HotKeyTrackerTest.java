@@ -0,0 +1,68 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.DataType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class HotKeyTrackerTest {
+    private static final PrimaryKeyMetadata[] PRIMARY_KEYS = {
+            new PrimaryKeyMetadata(new KeyHasherTest.TestColumn(DataType.text()), 0, true),
+            new PrimaryKeyMetadata(new KeyHasherTest.TestColumn(DataType.cint()), 1, false)
+    };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testGetHottestKeys() throws Exception {
+        HotKeyTracker hotKeyTracker = createTracker(temporaryFolder.getRoot().toPath().resolve("hot_keys"), 2);
+
+        recordAccess(hotKeyTracker, "cold", 1, 1);
+        recordAccess(hotKeyTracker, "warm", 2, 2);
+        recordAccess(hotKeyTracker, "hot", 3, 3);
+
+        List<Object[]> hottestKeys = hotKeyTracker.getHottestKeys();
+
+        Assert.assertEquals(2, hottestKeys.size());
+        Assert.assertArrayEquals(new Object[]{"hot", 3}, hottestKeys.get(0));
+        Assert.assertArrayEquals(new Object[]{"warm", 2}, hottestKeys.get(1));
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        Path snapshotFile = temporaryFolder.getRoot().toPath().resolve("hot_keys");
+
+        HotKeyTracker hotKeyTracker = createTracker(snapshotFile, 10);
+
+        Assert.assertTrue(hotKeyTracker.readSnapshot().isEmpty());
+
+        recordAccess(hotKeyTracker, "first", 1, 1);
+        recordAccess(hotKeyTracker, "second", 2, 2);
+
+        Assert.assertEquals(2, hotKeyTracker.writeSnapshot());
+
+        List<EntityKey> keys = createTracker(snapshotFile, 10).readSnapshot();
+
+        Assert.assertEquals(2, keys.size());
+        Assert.assertEquals(EntityKey.build(PRIMARY_KEYS, Arrays.asList("second", 2), 1), keys.get(0));
+        Assert.assertEquals(EntityKey.build(PRIMARY_KEYS, Arrays.asList("first", 1), 1), keys.get(1));
+    }
+
+    private static HotKeyTracker createTracker(Path snapshotFile, int snapshotSize) {
+        return new HotKeyTracker(snapshotFile, snapshotSize, 100, keys -> EntityKey.build(PRIMARY_KEYS, Arrays.asList(keys), 1));
+    }
+
+    private static void recordAccess(HotKeyTracker hotKeyTracker, String id, int version, int times) {
+        Object[] keys = {id, version};
+
+        for (int i = 0; i < times; i++) {
+            hotKeyTracker.recordAccess(Arrays.asList(keys), keys);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.DataType;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare cache key hashing by {@link KeyHasher} with previous implementation based on java serialization. Allocation per lookup is reported by GC
+ * profiler as {@code gc.alloc.rate.norm}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KeyHasherBenchmark {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final PrimaryKeyMetadata[] primaryKeys = {
+            new PrimaryKeyMetadata(new KeyHasherTest.TestColumn(DataType.uuid()), 0, true),
+            new PrimaryKeyMetadata(new KeyHasherTest.TestColumn(DataType.text()), 1, false),
+            new PrimaryKeyMetadata(new KeyHasherTest.TestColumn(DataType.timestamp()), 2, false)
+    };
+
+    private final List<Object> keys = Arrays.asList(UUID.randomUUID(), "user@example.com", new Date());
+
+    @Benchmark
+    public long keyHasher() {
+        return KeyHasher.hash(primaryKeys, keys);
+    }
+
+    @Benchmark
+    public long objectOutputStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(out);
+
+        for (Object key : keys) {
+            objectOutputStream.writeObject(key);
+        }
+
+        return HASH_FUNCTION.hashBytes(out.toByteArray()).asLong();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(KeyHasherBenchmark.class.getSimpleName())
+                                              .addProfiler(GCProfiler.class)
+                                              .warmupIterations(5)
+                                              .measurementIterations(5)
+                                              .forks(1)
+                                              .build();
+
+        new Runner(options).run();
+    }
+}
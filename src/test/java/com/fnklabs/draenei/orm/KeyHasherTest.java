@@ -0,0 +1,115 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+public class KeyHasherTest {
+    private static final PrimaryKeyMetadata[] PRIMARY_KEYS = {
+            new PrimaryKeyMetadata(new TestColumn(DataType.uuid()), 0, true),
+            new PrimaryKeyMetadata(new TestColumn(DataType.text()), 1, false),
+            new PrimaryKeyMetadata(new TestColumn(DataType.timestamp()), 2, false)
+    };
+
+    @Test
+    public void testSameKeysHaveSameHash() throws Exception {
+        UUID id = UUID.randomUUID();
+        Date date = new Date();
+
+        long first = KeyHasher.hash(PRIMARY_KEYS, Arrays.asList(id, "test", date));
+        long second = KeyHasher.hash(PRIMARY_KEYS, Arrays.asList(new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits()), "test", new Date(date.getTime())));
+
+        Assert.assertEquals(first, second);
+    }
+
+    @Test
+    public void testDifferentKeysHaveDifferentHash() throws Exception {
+        UUID id = UUID.randomUUID();
+
+        Assert.assertNotEquals(KeyHasher.hash(PRIMARY_KEYS, Arrays.asList(id, "ab", null)), KeyHasher.hash(PRIMARY_KEYS, Arrays.asList(id, "a", null)));
+        Assert.assertNotEquals(KeyHasher.hash(PRIMARY_KEYS, Collections.singletonList(id)), KeyHasher.hash(PRIMARY_KEYS, Arrays.asList(id, null)));
+        Assert.assertNotEquals(KeyHasher.hash(PRIMARY_KEYS, Arrays.asList(id, "a", new Date(1))), KeyHasher.hash(PRIMARY_KEYS, Arrays.asList(id, "a", new Date(2))));
+    }
+
+    @Test
+    public void testByteBufferPositionIsRespected() throws Exception {
+        ByteBuffer heapBuffer = ByteBuffer.wrap(new byte[]{9, 1, 2, 3});
+        heapBuffer.position(1);
+
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(3);
+        directBuffer.put(new byte[]{1, 2, 3});
+        directBuffer.flip();
+
+        Assert.assertEquals(KeyHasher.hash(PRIMARY_KEYS, Collections.singletonList(heapBuffer)), KeyHasher.hash(PRIMARY_KEYS, Collections.singletonList(directBuffer)));
+        Assert.assertEquals(1, heapBuffer.position());
+        Assert.assertEquals(0, directBuffer.position());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyKeys() throws Exception {
+        KeyHasher.hash(PRIMARY_KEYS, Arrays.asList(UUID.randomUUID(), "a", new Date(), 1));
+    }
+
+    /**
+     * Column that only serialize values
+     */
+    static class TestColumn implements ColumnMetadata {
+        private final DataType dataType;
+
+        TestColumn(DataType dataType) {
+            this.dataType = dataType;
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return dataType.getName().name();
+        }
+
+        @NotNull
+        @Override
+        public String getPropertyName() {
+            return getName();
+        }
+
+        @NotNull
+        @Override
+        public Class getFieldType() {
+            return dataType.asJavaClass();
+        }
+
+        @Override
+        public void writeValue(@NotNull Object entity, @Nullable Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nullable
+        @Override
+        public <FieldType> FieldType readValue(@NotNull Object object) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ByteBuffer serialize(@Nullable Object value) {
+            if (value == null) {
+                return null;
+            }
+
+            return dataType.serialize(value, ProtocolVersion.NEWEST_SUPPORTED);
+        }
+
+        @Override
+        public <T> T deserialize(@Nullable ByteBuffer data) {
+            return (T) dataType.deserialize(data, ProtocolVersion.NEWEST_SUPPORTED);
+        }
+    }
+}
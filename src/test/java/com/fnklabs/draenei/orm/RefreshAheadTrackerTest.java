@@ -0,0 +1,45 @@
+package com.fnklabs.draenei.orm;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RefreshAheadTrackerTest {
+    private static final long REFRESH_AFTER = 800;
+
+    private static final long EXPIRE_AFTER = 1000;
+
+    @Test
+    public void testRefreshAfterWrite() throws Exception {
+        AtomicLong clock = new AtomicLong();
+
+        RefreshAheadTracker refreshAheadTracker = new RefreshAheadTracker(REFRESH_AFTER, EXPIRE_AFTER, 100, clock::get);
+
+        refreshAheadTracker.onWrite("key");
+
+        clock.set(REFRESH_AFTER - 1);
+
+        Assert.assertFalse(refreshAheadTracker.tryStartRefresh("key"));
+
+        clock.set(REFRESH_AFTER);
+
+        Assert.assertTrue(refreshAheadTracker.tryStartRefresh("key"));
+        Assert.assertFalse(refreshAheadTracker.tryStartRefresh("key"));
+
+        refreshAheadTracker.onRefreshComplete("key", true);
+
+        Assert.assertFalse(refreshAheadTracker.tryStartRefresh("key"));
+    }
+
+    @Test
+    public void testRefreshUnknownKey() throws Exception {
+        RefreshAheadTracker refreshAheadTracker = new RefreshAheadTracker(REFRESH_AFTER, EXPIRE_AFTER, 100, () -> 0);
+
+        Assert.assertTrue(refreshAheadTracker.tryStartRefresh("key"));
+
+        refreshAheadTracker.onRefreshComplete("key", false);
+
+        Assert.assertTrue(refreshAheadTracker.tryStartRefresh("key"));
+    }
+}
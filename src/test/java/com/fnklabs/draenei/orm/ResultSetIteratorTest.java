@@ -0,0 +1,68 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResultSetIteratorTest {
+
+    @Test
+    public void testIterate() throws Exception {
+        Row first = Mockito.mock(Row.class);
+        Row second = Mockito.mock(Row.class);
+        Row skipped = Mockito.mock(Row.class);
+
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        when(resultSet.one()).thenReturn(first, skipped, second, null);
+        when(resultSet.isFullyFetched()).thenReturn(true);
+
+        ResultSetIterator<String> iterator = new ResultSetIterator<>(resultSet, row -> row == skipped ? null : row == first ? "first" : "second", 1);
+
+        List<String> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("first", result.get(0));
+        Assert.assertEquals("second", result.get(1));
+        Assert.assertFalse(iterator.hasNext());
+
+        verify(resultSet, never()).fetchMoreResults();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextOnEmptyResult() throws Exception {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        when(resultSet.isFullyFetched()).thenReturn(true);
+
+        new ResultSetIterator<>(resultSet, row -> row, 1).next();
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        when(resultSet.isFullyFetched()).thenReturn(false);
+
+        when(resultSet.getAvailableWithoutFetching()).thenReturn(10);
+        ResultSetIterator.prefetch(resultSet, 5);
+        verify(resultSet, never()).fetchMoreResults();
+
+        when(resultSet.getAvailableWithoutFetching()).thenReturn(5);
+        ResultSetIterator.prefetch(resultSet, 5);
+        verify(resultSet, times(1)).fetchMoreResults();
+
+        when(resultSet.isFullyFetched()).thenReturn(true);
+        ResultSetIterator.prefetch(resultSet, 5);
+        verify(resultSet, times(1)).fetchMoreResults();
+    }
+}
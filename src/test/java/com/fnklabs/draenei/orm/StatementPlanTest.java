@@ -0,0 +1,250 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PreparedId;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TableMetadata;
+import com.fnklabs.draenei.CassandraClient;
+import com.fnklabs.draenei.orm.annotations.Column;
+import com.fnklabs.draenei.orm.annotations.PrimaryKey;
+import com.fnklabs.draenei.orm.annotations.Table;
+import com.fnklabs.draenei.orm.annotations.WriteTimestamp;
+import com.fnklabs.draenei.orm.exception.QueryException;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+public class StatementPlanTest {
+    private Map<String, PreparedStatement> preparedStatements;
+
+    private StatementPlan statementPlan;
+
+    @Before
+    public void setUp() throws Exception {
+        preparedStatements = new HashMap<>();
+
+        statementPlan = buildStatementPlan(preparedStatements);
+    }
+
+    @Test
+    public void testBindInsert() throws Exception {
+        BoundStatement boundStatement = statementPlan.bindInsert(new VersionedEntity(1, 2, 3, 4));
+
+        Assert.assertEquals(serialize(1L), statementPlan.getPartitionKey(boundStatement));
+        Assert.assertEquals(serialize(1L, 2L), statementPlan.getPrimaryKey(boundStatement));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toMicros(4), statementPlan.getWriteTimestamp(boundStatement));
+
+        // timestamp marker follows column values
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toMicros(4), boundStatement.getLong(3));
+    }
+
+    @Test
+    public void testBindDelete() throws Exception {
+        String deleteQuery = getQuery("DELETE");
+
+        // USING clause precedes WHERE clause, so timestamp marker is bound before primary keys
+        Assert.assertTrue(deleteQuery.indexOf("USING TIMESTAMP ?") < deleteQuery.indexOf("WHERE"));
+
+        BoundStatement boundStatement = statementPlan.bindDelete(new VersionedEntity(1, 2, 3, 4));
+
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toMicros(4), boundStatement.getLong(0));
+        Assert.assertEquals(serialize(1L).get(0), boundStatement.getBytesUnsafe(1));
+        Assert.assertEquals(serialize(2L).get(0), boundStatement.getBytesUnsafe(2));
+
+        Assert.assertEquals(serialize(1L), statementPlan.getPartitionKey(boundStatement));
+        Assert.assertEquals(serialize(1L, 2L), statementPlan.getPrimaryKey(boundStatement));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toMicros(4), statementPlan.getWriteTimestamp(boundStatement));
+    }
+
+    @Test
+    public void testBindDeleteByKey() throws Exception {
+        long currentTimestamp = WriteTimestampMetadata.getCurrentTimestamp();
+
+        BoundStatement boundStatement = statementPlan.bindDeleteByKey(serialize(1L, 2L));
+
+        Assert.assertTrue(boundStatement.getLong(0) >= currentTimestamp);
+        Assert.assertEquals(serialize(1L, 2L), statementPlan.getPrimaryKey(boundStatement));
+    }
+
+    @Test
+    public void testInsertAndDeleteHaveSameRowIdentity() throws Exception {
+        VersionedEntity entity = new VersionedEntity(1, 2, 3, 4);
+
+        BoundStatement insertStatement = statementPlan.bindInsert(entity);
+        BoundStatement deleteStatement = statementPlan.bindDelete(entity);
+
+        Assert.assertEquals(statementPlan.getPartitionKey(insertStatement), statementPlan.getPartitionKey(deleteStatement));
+        Assert.assertEquals(statementPlan.getPrimaryKey(insertStatement), statementPlan.getPrimaryKey(deleteStatement));
+    }
+
+    @Test(expected = QueryException.class)
+    public void testBindDeleteByPartialKey() throws Exception {
+        statementPlan.bindDeleteByKey(serialize(1L));
+    }
+
+    private String getQuery(String prefix) {
+        return preparedStatements.keySet()
+                                 .stream()
+                                 .filter(query -> query.startsWith(prefix))
+                                 .findFirst()
+                                 .orElseThrow(AssertionError::new);
+    }
+
+    static List<ByteBuffer> serialize(Long... values) {
+        ByteBuffer[] serializedValues = new ByteBuffer[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            serializedValues[i] = DataType.bigint().serialize(values[i], ProtocolVersion.NEWEST_SUPPORTED);
+        }
+
+        return Arrays.asList(serializedValues);
+    }
+
+    /**
+     * Build statement plan of {@link VersionedEntity} without cassandra, every prepared statement has bigint variables
+     *
+     * @param preparedStatements Map to which prepared statements will be put by query
+     *
+     * @return Statement plan
+     */
+    static StatementPlan buildStatementPlan(Map<String, PreparedStatement> preparedStatements) throws Exception {
+        TableMetadata tableMetadata = Mockito.mock(TableMetadata.class);
+
+        com.datastax.driver.core.ColumnMetadata columnMetadata = Mockito.mock(com.datastax.driver.core.ColumnMetadata.class);
+        when(columnMetadata.getType()).thenReturn(DataType.bigint());
+        when(tableMetadata.getColumn(Matchers.anyString())).thenReturn(columnMetadata);
+        when(tableMetadata.getPrimaryKey()).thenReturn(Arrays.asList(columnMetadata, columnMetadata));
+        when(tableMetadata.getPartitionKey()).thenReturn(Collections.singletonList(columnMetadata));
+        when(tableMetadata.getClusteringColumns()).thenReturn(Collections.singletonList(columnMetadata));
+
+        CassandraClient cassandraClient = Mockito.mock(CassandraClient.class);
+        when(cassandraClient.getDefaultKeyspace()).thenReturn("test");
+        when(cassandraClient.getTableMetadata(Matchers.anyString(), Matchers.anyString())).thenReturn(tableMetadata);
+        when(cassandraClient.getProtocolVersion()).thenReturn(ProtocolVersion.NEWEST_SUPPORTED);
+        when(cassandraClient.prepare(Matchers.anyString(), Matchers.anyString())).then(invocation -> {
+            String query = (String) invocation.getArguments()[1];
+
+            PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+            ColumnDefinitions variables = buildVariables(StringUtils.countMatches(query, "?"));
+            PreparedId preparedId = buildPreparedId(variables);
+            when(preparedStatement.getVariables()).thenReturn(variables);
+            when(preparedStatement.getPreparedId()).thenReturn(preparedId);
+
+            preparedStatements.put(query, preparedStatement);
+
+            return preparedStatement;
+        });
+
+        EntityMetadata entityMetadata = EntityMetadata.buildEntityMetadata(VersionedEntity.class, cassandraClient);
+
+        return StatementPlan.build(entityMetadata, cassandraClient);
+    }
+
+    /**
+     * Create bigint variables definitions, driver doesn't expose its constructors
+     */
+    private static ColumnDefinitions buildVariables(int size) throws Exception {
+        Constructor<ColumnDefinitions.Definition> definitionConstructor = ColumnDefinitions.Definition.class.getDeclaredConstructor(String.class, String.class, String.class, DataType.class);
+        definitionConstructor.setAccessible(true);
+
+        ColumnDefinitions.Definition[] definitions = new ColumnDefinitions.Definition[size];
+
+        for (int i = 0; i < size; i++) {
+            definitions[i] = definitionConstructor.newInstance("test", "versioned_entity", "column_" + i, DataType.bigint());
+        }
+
+        Constructor<ColumnDefinitions> constructor = ColumnDefinitions.class.getDeclaredConstructor(ColumnDefinitions.Definition[].class);
+        constructor.setAccessible(true);
+
+        return constructor.newInstance((Object) definitions);
+    }
+
+    private static PreparedId buildPreparedId(ColumnDefinitions variables) throws Exception {
+        // prepared statement id (MD5Digest) isn't used by bound statement, so constructor is looked up by number of parameters
+        for (Constructor<?> constructor : PreparedId.class.getDeclaredConstructors()) {
+            if (constructor.getParameterCount() == 5) {
+                constructor.setAccessible(true);
+
+                return (PreparedId) constructor.newInstance(null, variables, null, null, ProtocolVersion.NEWEST_SUPPORTED);
+            }
+        }
+
+        throw new IllegalStateException("PreparedId constructor wasn't found");
+    }
+
+    @Table(name = "versioned_entity")
+    public static class VersionedEntity {
+        @PrimaryKey(order = 0)
+        @Column(name = "id")
+        private long id;
+
+        @PrimaryKey(order = 1, isPartitionKey = false)
+        @Column(name = "time")
+        private long time;
+
+        @Column(name = "value")
+        private long value;
+
+        @WriteTimestamp(unit = TimeUnit.MILLISECONDS)
+        private long version;
+
+        public VersionedEntity() {
+        }
+
+        public VersionedEntity(long id, long time, long value, long version) {
+            this.id = id;
+            this.time = time;
+            this.value = value;
+            this.version = version;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public void setTime(long time) {
+            this.time = time;
+        }
+
+        public long getValue() {
+            return value;
+        }
+
+        public void setValue(long value) {
+            this.value = value;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public void setVersion(long version) {
+            this.version = version;
+        }
+    }
+}
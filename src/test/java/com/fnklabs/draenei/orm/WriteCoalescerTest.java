@@ -0,0 +1,292 @@
+package com.fnklabs.draenei.orm;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Statement;
+import com.fnklabs.draenei.orm.StatementPlanTest.VersionedEntity;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+public class WriteCoalescerTest {
+    private StatementPlan statementPlan;
+
+    /**
+     * Statements that were passed to execution
+     */
+    private List<Statement> executedStatements;
+
+    /**
+     * Results of executed statements in execution order
+     */
+    private List<SettableFuture<ResultSet>> results;
+
+    @Before
+    public void setUp() throws Exception {
+        statementPlan = StatementPlanTest.buildStatementPlan(new HashMap<>());
+        executedStatements = new CopyOnWriteArrayList<>();
+        results = new CopyOnWriteArrayList<>();
+    }
+
+    @Test
+    public void testFlushOnMaxBatchSize() throws Exception {
+        WriteCoalescer writeCoalescer = createCoalescer(2);
+
+        BoundStatement firstStatement = statementPlan.bindInsert(new VersionedEntity(1, 1, 1, 1));
+        BoundStatement secondStatement = statementPlan.bindInsert(new VersionedEntity(1, 2, 1, 1));
+
+        ListenableFuture<Boolean> firstFuture = writeCoalescer.submit(firstStatement);
+
+        Assert.assertTrue(executedStatements.isEmpty());
+
+        ListenableFuture<Boolean> secondFuture = writeCoalescer.submit(secondStatement);
+
+        // batch is flushed without waiting for window
+        Assert.assertEquals(1, executedStatements.size());
+        Assert.assertEquals(ConsistencyLevel.QUORUM, executedStatements.get(0).getConsistencyLevel());
+        Assert.assertEquals(Arrays.asList(firstStatement, secondStatement), new ArrayList<>(getStatements(0)));
+
+        Assert.assertFalse(firstFuture.isDone());
+        Assert.assertFalse(secondFuture.isDone());
+
+        results.get(0).set(createResultSet(true));
+
+        Assert.assertTrue(firstFuture.get());
+        Assert.assertTrue(secondFuture.get());
+    }
+
+    @Test
+    public void testFlushOnWindow() throws Exception {
+        WriteCoalescer writeCoalescer = new WriteCoalescer(statementPlan, this::execute, MoreExecutors.directExecutor(), ConsistencyLevel.QUORUM, 1, TimeUnit.MILLISECONDS, 10);
+
+        BoundStatement statement = statementPlan.bindInsert(new VersionedEntity(1, 1, 1, 1));
+
+        ListenableFuture<Boolean> future = writeCoalescer.submit(statement);
+
+        waitForExecution(1);
+
+        // single statement is executed without batch
+        Assert.assertSame(statement, executedStatements.get(0));
+
+        results.get(0).set(createResultSet(false));
+
+        Assert.assertFalse(future.get());
+    }
+
+    @Test
+    public void testSeparateBatchesForPartitions() throws Exception {
+        WriteCoalescer writeCoalescer = createCoalescer(2);
+
+        writeCoalescer.submit(statementPlan.bindInsert(new VersionedEntity(1, 1, 1, 1)));
+        writeCoalescer.submit(statementPlan.bindInsert(new VersionedEntity(2, 1, 1, 1)));
+
+        Assert.assertTrue(executedStatements.isEmpty());
+
+        writeCoalescer.submit(statementPlan.bindInsert(new VersionedEntity(2, 2, 1, 1)));
+
+        Assert.assertEquals(1, executedStatements.size());
+        Assert.assertEquals(2, getStatements(0).size());
+    }
+
+    @Test
+    public void testKeepRowWriteWithHighestTimestamp() throws Exception {
+        WriteCoalescer writeCoalescer = createCoalescer(3);
+
+        BoundStatement newInsert = statementPlan.bindInsert(new VersionedEntity(1, 1, 2, 20));
+        BoundStatement oldDelete = statementPlan.bindDelete(new VersionedEntity(1, 1, 1, 10));
+        BoundStatement otherRowInsert = statementPlan.bindInsert(new VersionedEntity(1, 2, 1, 1));
+
+        List<ListenableFuture<Boolean>> futures = new ArrayList<>();
+        futures.add(writeCoalescer.submit(newInsert));
+        futures.add(writeCoalescer.submit(oldDelete));
+        futures.add(writeCoalescer.submit(otherRowInsert));
+
+        Assert.assertEquals(1, executedStatements.size());
+
+        // delete that arrived later but has older timestamp doesn't replace insert
+        Assert.assertEquals(Arrays.asList(newInsert, otherRowInsert), new ArrayList<>(getStatements(0)));
+
+        results.get(0).set(createResultSet(true));
+
+        for (ListenableFuture<Boolean> future : futures) {
+            Assert.assertTrue(future.get());
+        }
+    }
+
+    @Test
+    public void testKeepLastRowWriteWithEqualTimestamp() throws Exception {
+        WriteCoalescer writeCoalescer = createCoalescer(3);
+
+        BoundStatement firstInsert = statementPlan.bindInsert(new VersionedEntity(1, 1, 1, 10));
+        BoundStatement secondInsert = statementPlan.bindInsert(new VersionedEntity(1, 1, 2, 10));
+        BoundStatement thirdInsert = statementPlan.bindInsert(new VersionedEntity(1, 1, 3, 5));
+
+        writeCoalescer.submit(firstInsert);
+        writeCoalescer.submit(secondInsert);
+        writeCoalescer.submit(thirdInsert);
+
+        Assert.assertEquals(1, executedStatements.size());
+
+        // only one statement of row is left, so it's executed without batch
+        Assert.assertSame(secondInsert, executedStatements.get(0));
+    }
+
+    @Test
+    public void testFailBatch() throws Exception {
+        WriteCoalescer writeCoalescer = createCoalescer(2);
+
+        ListenableFuture<Boolean> firstFuture = writeCoalescer.submit(statementPlan.bindInsert(new VersionedEntity(1, 1, 1, 1)));
+        ListenableFuture<Boolean> secondFuture = writeCoalescer.submit(statementPlan.bindInsert(new VersionedEntity(1, 2, 1, 1)));
+
+        IllegalStateException exception = new IllegalStateException("write timeout");
+
+        results.get(0).setException(exception);
+
+        assertFailed(firstFuture, exception);
+        assertFailed(secondFuture, exception);
+    }
+
+    @Test
+    public void testFailBatchOnExecutionException() throws Exception {
+        IllegalStateException exception = new IllegalStateException("session is closed");
+
+        WriteCoalescer writeCoalescer = new WriteCoalescer(statementPlan, statement -> {
+            throw exception;
+        }, MoreExecutors.directExecutor(), ConsistencyLevel.QUORUM, 1, TimeUnit.MINUTES, 2);
+
+        ListenableFuture<Boolean> firstFuture = writeCoalescer.submit(statementPlan.bindInsert(new VersionedEntity(1, 1, 1, 1)));
+        ListenableFuture<Boolean> secondFuture = writeCoalescer.submit(statementPlan.bindInsert(new VersionedEntity(1, 2, 1, 1)));
+
+        assertFailed(firstFuture, exception);
+        assertFailed(secondFuture, exception);
+    }
+
+    @Test
+    public void testConcurrentSubmit() throws Exception {
+        int threads = 4;
+        int statementsPerThread = 1000;
+
+        WriteCoalescer writeCoalescer = new WriteCoalescer(statementPlan, statement -> {
+            executedStatements.add(statement);
+
+            return Futures.immediateFuture(createResultSet(true));
+        }, MoreExecutors.directExecutor(), ConsistencyLevel.QUORUM, 100, TimeUnit.MICROSECONDS, 3);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+        List<ListenableFuture<Boolean>> futures = new CopyOnWriteArrayList<>();
+
+        CountDownLatch startLatch = new CountDownLatch(1);
+
+        try {
+            for (int thread = 0; thread < threads; thread++) {
+                int threadId = thread;
+
+                executorService.submit(() -> {
+                    startLatch.await();
+
+                    // all threads write to the same partition, so statements are often added to batches that are being flushed
+                    for (int i = 0; i < statementsPerThread; i++) {
+                        futures.add(writeCoalescer.submit(statementPlan.bindInsert(new VersionedEntity(1, threadId * statementsPerThread + i, 1, 1))));
+                    }
+
+                    return null;
+                });
+            }
+
+            startLatch.countDown();
+
+            executorService.shutdown();
+
+            Assert.assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+            for (ListenableFuture<Boolean> future : futures) {
+                Assert.assertTrue(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        Assert.assertEquals(threads * statementsPerThread, futures.size());
+
+        // every row is written exactly once
+        int writtenRows = 0;
+
+        for (Statement statement : executedStatements) {
+            writtenRows += statement instanceof BatchStatement ? ((BatchStatement) statement).getStatements().size() : 1;
+        }
+
+        Assert.assertEquals(threads * statementsPerThread, writtenRows);
+    }
+
+    private WriteCoalescer createCoalescer(int maxBatchSize) {
+        // window is long enough to be sure that batch is flushed only by size
+        return new WriteCoalescer(statementPlan, this::execute, MoreExecutors.directExecutor(), ConsistencyLevel.QUORUM, 1, TimeUnit.MINUTES, maxBatchSize);
+    }
+
+    private ListenableFuture<ResultSet> execute(Statement statement) {
+        SettableFuture<ResultSet> result = SettableFuture.create();
+
+        results.add(result);
+        executedStatements.add(statement);
+
+        return result;
+    }
+
+    private void waitForExecution(int statements) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+
+        while (executedStatements.size() < statements && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+
+        Assert.assertEquals(statements, executedStatements.size());
+    }
+
+    private Collection<Statement> getStatements(int executionIndex) {
+        Statement statement = executedStatements.get(executionIndex);
+
+        Assert.assertTrue(statement instanceof BatchStatement);
+
+        return ((BatchStatement) statement).getStatements();
+    }
+
+    private static ResultSet createResultSet(boolean wasApplied) {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+
+        when(resultSet.wasApplied()).thenReturn(wasApplied);
+
+        return resultSet;
+    }
+
+    private static void assertFailed(ListenableFuture<Boolean> future, Throwable expectedCause) throws InterruptedException {
+        try {
+            future.get();
+
+            Assert.fail("Future must be failed");
+        } catch (ExecutionException e) {
+            Assert.assertSame(expectedCause, e.getCause());
+        }
+    }
+}
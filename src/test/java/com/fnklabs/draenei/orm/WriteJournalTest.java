@@ -0,0 +1,96 @@
+package com.fnklabs.draenei.orm;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WriteJournalTest {
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testAppendAndRead() throws Exception {
+        WriteJournal<String> writeJournal = new WriteJournal<>(temporaryFolder.getRoot().toPath(), SEGMENT_SIZE, false);
+
+        Assert.assertTrue(writeJournal.rotate().isEmpty());
+
+        writeJournal.append(WriteJournal.Operation.PUT, "first");
+        writeJournal.append(WriteJournal.Operation.REMOVE, "second");
+
+        List<Path> segments = writeJournal.rotate();
+
+        Assert.assertEquals(1, segments.size());
+
+        List<String> records = new ArrayList<>();
+
+        Assert.assertEquals(2, writeJournal.read(segments.get(0), (operation, entity) -> records.add(operation + ":" + entity)));
+        Assert.assertEquals("PUT:first", records.get(0));
+        Assert.assertEquals("REMOVE:second", records.get(1));
+
+        writeJournal.delete(segments.get(0));
+
+        Assert.assertTrue(writeJournal.rotate().isEmpty());
+    }
+
+    @Test
+    public void testSegmentOverflow() throws Exception {
+        WriteJournal<String> writeJournal = new WriteJournal<>(temporaryFolder.getRoot().toPath(), SEGMENT_SIZE, true);
+
+        for (int i = 0; i < 100; i++) {
+            writeJournal.append(WriteJournal.Operation.PUT, String.format("entity-%d", i));
+        }
+
+        List<Path> segments = writeJournal.rotate();
+
+        Assert.assertTrue(segments.size() > 1);
+
+        List<String> records = new ArrayList<>();
+
+        for (Path segment : segments) {
+            writeJournal.read(segment, (operation, entity) -> records.add(entity));
+        }
+
+        Assert.assertEquals(100, records.size());
+        Assert.assertEquals("entity-0", records.get(0));
+        Assert.assertEquals("entity-99", records.get(99));
+    }
+
+    @Test
+    public void testReplayAfterRestart() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+
+        WriteJournal<String> writeJournal = new WriteJournal<>(directory, SEGMENT_SIZE, false);
+        writeJournal.append(WriteJournal.Operation.PUT, "first");
+        writeJournal.append(WriteJournal.Operation.PUT, "second");
+
+        WriteJournal<String> restartedJournal = new WriteJournal<>(directory, SEGMENT_SIZE, false);
+        restartedJournal.append(WriteJournal.Operation.PUT, "third");
+
+        List<Path> segments = restartedJournal.rotate();
+
+        Assert.assertEquals(2, segments.size());
+
+        // corrupt first record of previous run segment, reading of segment stops on it
+        try (RandomAccessFile file = new RandomAccessFile(segments.get(0).toFile(), "rw")) {
+            file.seek(20);
+            file.write(new byte[]{1, 2, 3});
+        }
+
+        List<String> records = new ArrayList<>();
+
+        for (Path segment : segments) {
+            restartedJournal.read(segment, (operation, entity) -> records.add(entity));
+        }
+
+        Assert.assertEquals(1, records.size());
+        Assert.assertEquals("third", records.get(0));
+    }
+}
@@ -0,0 +1,73 @@
+package com.fnklabs.draenei.orm;
+
+import com.fnklabs.draenei.orm.annotations.WriteTimestamp;
+import com.fnklabs.draenei.orm.exception.MetadataException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.beans.PropertyDescriptor;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+public class WriteTimestampMetadataTest {
+
+    @Test
+    public void testReadTimestamp() throws Exception {
+        WriteTimestampMetadata millisTimestamp = new WriteTimestampMetadata(entity -> 1000L, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1000000L, millisTimestamp.readTimestamp(new Object()));
+
+        WriteTimestampMetadata dateTimestamp = new WriteTimestampMetadata(entity -> new Date(2000), TimeUnit.MICROSECONDS);
+        Assert.assertEquals(2000000L, dateTimestamp.readTimestamp(new Object()));
+    }
+
+    @Test
+    public void testReadCurrentTimestamp() throws Exception {
+        long currentTimestamp = WriteTimestampMetadata.getCurrentTimestamp();
+
+        WriteTimestampMetadata writeTimestampMetadata = new WriteTimestampMetadata(entity -> null, TimeUnit.MICROSECONDS);
+
+        Assert.assertTrue(writeTimestampMetadata.readTimestamp(new Object()) >= currentTimestamp);
+    }
+
+    @Test
+    public void testBuild() throws Exception {
+        TestEntity entity = new TestEntity();
+        entity.setVersion(10);
+
+        PropertyDescriptor propertyDescriptor = new PropertyDescriptor("version", TestEntity.class);
+
+        WriteTimestampMetadata writeTimestampMetadata = WriteTimestampMetadata.build(propertyDescriptor, TestEntity.class, TestEntity.class.getDeclaredField("version").getAnnotation(WriteTimestamp.class));
+
+        Assert.assertEquals(10000L, writeTimestampMetadata.readTimestamp(entity));
+    }
+
+    @Test(expected = MetadataException.class)
+    public void testBuildInvalidType() throws Exception {
+        PropertyDescriptor propertyDescriptor = new PropertyDescriptor("name", TestEntity.class);
+
+        WriteTimestampMetadata.build(propertyDescriptor, TestEntity.class, TestEntity.class.getDeclaredField("version").getAnnotation(WriteTimestamp.class));
+    }
+
+    public static class TestEntity {
+        @WriteTimestamp(unit = TimeUnit.MILLISECONDS)
+        private long version;
+
+        private String name;
+
+        public long getVersion() {
+            return version;
+        }
+
+        public void setVersion(long version) {
+            this.version = version;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.fnklabs.draenei.orm.mapping;
+
+import com.fnklabs.draenei.orm.exception.MetadataException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class AccessorsTest {
+
+    @Test
+    public void testGetter() throws Exception {
+        PublicBean bean = new PublicBean();
+        bean.setId(UUID.randomUUID());
+        bean.setCounter(42);
+
+        Function<Object, Object> idGetter = Accessors.getter(PublicBean.class.getMethod("getId"));
+        Function<Object, Object> counterGetter = Accessors.getter(PublicBean.class.getMethod("getCounter"));
+
+        Assert.assertEquals(bean.getId(), idGetter.apply(bean));
+        Assert.assertEquals(42, counterGetter.apply(bean));
+    }
+
+    @Test
+    public void testSetter() throws Exception {
+        PublicBean bean = new PublicBean();
+
+        BiConsumer<Object, Object> idSetter = Accessors.setter(PublicBean.class.getMethod("setId", UUID.class));
+        BiConsumer<Object, Object> counterSetter = Accessors.setter(PublicBean.class.getMethod("setCounter", int.class));
+
+        UUID id = UUID.randomUUID();
+
+        idSetter.accept(bean, id);
+        counterSetter.accept(bean, 7);
+
+        Assert.assertEquals(id, bean.getId());
+        Assert.assertEquals(7, bean.getCounter());
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testSetterInvalidType() throws Exception {
+        BiConsumer<Object, Object> idSetter = Accessors.setter(PublicBean.class.getMethod("setId", UUID.class));
+
+        idSetter.accept(new PublicBean(), "not uuid");
+    }
+
+    @Test
+    public void testNonPublicClassAccessors() throws Exception {
+        PrivateBean bean = Accessors.constructor(PrivateBean.class).get();
+
+        BiConsumer<Object, Object> setter = Accessors.setter(PrivateBean.class.getDeclaredMethod("setName", String.class));
+        Function<Object, Object> getter = Accessors.getter(PrivateBean.class.getDeclaredMethod("getName"));
+
+        setter.accept(bean, "test");
+
+        Assert.assertEquals("test", getter.apply(bean));
+    }
+
+    @Test
+    public void testConstructor() throws Exception {
+        Supplier<PublicBean> constructor = Accessors.constructor(PublicBean.class);
+
+        PublicBean first = constructor.get();
+        PublicBean second = constructor.get();
+
+        Assert.assertNotNull(first);
+        Assert.assertNotSame(first, second);
+    }
+
+    @Test(expected = MetadataException.class)
+    public void testConstructorWithoutDefaultConstructor() throws Exception {
+        Accessors.constructor(NoDefaultConstructorBean.class).get();
+    }
+
+    public static class PublicBean {
+        private UUID id;
+        private int counter;
+
+        public UUID getId() {
+            return id;
+        }
+
+        public void setId(UUID id) {
+            this.id = id;
+        }
+
+        public int getCounter() {
+            return counter;
+        }
+
+        public void setCounter(int counter) {
+            this.counter = counter;
+        }
+    }
+
+    private static class PrivateBean {
+        private String name;
+
+        private String getName() {
+            return name;
+        }
+
+        private void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class NoDefaultConstructorBean {
+        public NoDefaultConstructorBean(String value) {
+        }
+    }
+}